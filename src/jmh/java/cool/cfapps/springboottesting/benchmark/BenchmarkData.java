@@ -0,0 +1,50 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.entity.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// deterministic test data shared by the benchmarks: (first name, last name) and email are unique per row
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static String firstName(long id) {
+        return "First" + (id % 1000);
+    }
+
+    static String lastName(long id) {
+        return "Last" + (id / 1000);
+    }
+
+    static String email(long id) {
+        return "employee" + id + "@example.com";
+    }
+
+    static Employee employee(long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName(id))
+                .lastName(lastName(id))
+                .email(email(id))
+                .version(0L)
+                .build();
+    }
+
+    static List<EmployeeDto> employeeDtos(int size) {
+        List<EmployeeDto> employeeDtos = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            employeeDtos.add(EmployeeDto.builder()
+                    .id(id)
+                    .firstName(firstName(id))
+                    .lastName(lastName(id))
+                    .email(email(id))
+                    .version(0L)
+                    .build());
+        }
+        return employeeDtos;
+    }
+}
@@ -0,0 +1,84 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.entity.Employee;
+import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// run with -Djmh.args="EntityDtoUtilBenchmark -prof gc" and compare gc.alloc.rate.norm (bytes per operation)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityDtoUtilBenchmark {
+
+    private Employee employee;
+    private Optional<Employee> optionalEmployee;
+    private EmployeeDto employeeDto;
+    private List<Employee> employees;
+
+    @Setup
+    public void setUp() {
+        employee = BenchmarkData.employee(42L);
+        optionalEmployee = Optional.of(employee);
+        employeeDto = EntityDtoUtil.toDto(employee);
+        employees = new ArrayList<>(1000);
+        for (long id = 1; id <= 1000; id++) {
+            employees.add(BenchmarkData.employee(id));
+        }
+    }
+
+    @Benchmark
+    public EmployeeDto toDto() {
+        return EntityDtoUtil.toDto(employee);
+    }
+
+    @Benchmark
+    public Optional<EmployeeDto> toDtoOptional() {
+        return EntityDtoUtil.toDto(optionalEmployee);
+    }
+
+    @Benchmark
+    public Employee toEntity() {
+        return EntityDtoUtil.toEntity(employeeDto);
+    }
+
+    @Benchmark
+    public List<EmployeeDto> toDtoList() {
+        return EntityDtoUtil.toDtoList(employees);
+    }
+
+    // the builder based mapping EntityDtoUtil used before, kept as the baseline for allocation comparisons
+    @Benchmark
+    public EmployeeDto toDtoWithBuilder() {
+        return EmployeeDto.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .build();
+    }
+
+    @Benchmark
+    public List<EmployeeDto> toDtoListWithBuilder() {
+        List<EmployeeDto> dtoList = new ArrayList<>();
+        for (Employee employee : employees) {
+            dtoList.add(EmployeeDto.builder()
+                    .id(employee.getId())
+                    .firstName(employee.getFirstName())
+                    .lastName(employee.getLastName())
+                    .email(employee.getEmail())
+                    .version(employee.getVersion())
+                    .build());
+        }
+        return dtoList;
+    }
+}
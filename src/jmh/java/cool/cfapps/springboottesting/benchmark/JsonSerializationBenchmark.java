@@ -0,0 +1,39 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of the list endpoint payload
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private List<EmployeeDto> employeeDtos;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        employeeDtos = BenchmarkData.employeeDtos(size);
+        writer = new ObjectMapper().writerFor(new TypeReference<List<EmployeeDto>>() {
+        });
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(employeeDtos);
+    }
+}
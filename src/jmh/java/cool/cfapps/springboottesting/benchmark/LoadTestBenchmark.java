@@ -0,0 +1,202 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import cool.cfapps.springboottesting.SpringBootTestingApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test of the EmployeeController endpoints over HTTP: the application runs with an embedded Tomcat on a
+ * random port, once per profile ("default" = application.properties only), and {@link #THREADS} client threads
+ * send requests through java.net.http.HttpClient. Throughput and latency percentiles are reported per endpoint
+ * and profile, e.g. {@code mvn -Pjmh -DskipTests verify -Djmh.args="LoadTestBenchmark"}, results in
+ * target/jmh-result.json.
+ * <p>
+ * Every request checks the status code, so a failing endpoint breaks the run instead of reporting fast errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(LoadTestBenchmark.THREADS)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class LoadTestBenchmark {
+
+    static final int THREADS = 8;
+    private static final int BATCH_SIZE = 100;
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private HttpClient client;
+    private String baseUrl;
+    private PrintStream stdout;
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench_load_" + profile + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=WARN"));
+        if (!profile.equals("default")) {
+            args.add("--spring.profiles.active=" + profile);
+        }
+        context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        RepositoryBenchmark.EmployeeDatabase.load(jdbcTemplate, rows);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/v1/employees";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        // show-sql prints with System.out.println: still paid for, but kept out of the JMH output
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+        context.close();
+    }
+
+    // the employees created by the create benchmarks are removed again, so every iteration reads the same table
+    @TearDown(Level.Iteration)
+    public void removeCreatedEmployees() {
+        jdbcTemplate.update("DELETE FROM employees WHERE id > ?", rows);
+    }
+
+    private static long randomId(int rows) {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public String readEmployee() throws Exception {
+        return send(get("/" + randomId(rows)), 200);
+    }
+
+    @Benchmark
+    public String readEmployeeByEmail() throws Exception {
+        return send(get("?email=" + BenchmarkData.email(randomId(rows))), 200);
+    }
+
+    @Benchmark
+    public String readEmployeesPage() throws Exception {
+        return send(get("?after=" + randomId(rows - 100) + "&limit=100"), 200);
+    }
+
+    @Benchmark
+    public String readAllEmployees() throws Exception {
+        return send(get(""), 200);
+    }
+
+    @Benchmark
+    public String streamAllEmployees() throws Exception {
+        return send(get("/stream"), 200);
+    }
+
+    // POST, PUT and DELETE of one employee
+    @Benchmark
+    public String createUpdateDeleteEmployee() throws Exception {
+        long n = created.incrementAndGet();
+        String employee = employeeJson(null, "Load", "Test", "load" + n + "@example.com");
+        String body = send(json("", "POST", employee), 201);
+        String id = id(body);
+        send(json("", "PUT", employeeJson(id, "Load", "Tested", "load" + n + "@example.com")), 200);
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).DELETE(), 200);
+    }
+
+    // PUT /batch of BATCH_SIZE existing employees, unchanged values: one SELECT and the dirty check per chunk
+    @Benchmark
+    public String updateEmployees() throws Exception {
+        long first = randomId(rows - BATCH_SIZE);
+        StringJoiner employees = new StringJoiner(",", "[", "]");
+        for (long id = first; id < first + BATCH_SIZE; id++) {
+            employees.add(employeeJson(String.valueOf(id), BenchmarkData.firstName(id), BenchmarkData.lastName(id),
+                    BenchmarkData.email(id)));
+        }
+        return send(json("/batch", "PUT", employees.toString()), 200);
+    }
+
+    // POST /batch of BATCH_SIZE new employees, then DELETE /batch of BATCH_SIZE ids above the seeded rows, most of
+    // them created by this benchmark (the batch answer does not contain the new ids)
+    @Benchmark
+    public String createAndDeleteEmployees() throws Exception {
+        StringJoiner employees = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            employees.add(employeeJson(null, "Batch", "Test", "batch" + created.incrementAndGet() + "@example.com"));
+        }
+        send(json("/batch", "POST", employees.toString()), 201);
+        StringJoiner ids = new StringJoiner(",", "[", "]");
+        long first = rows + ThreadLocalRandom.current().nextLong(created.get());
+        for (long id = first; id < first + BATCH_SIZE; id++) {
+            ids.add(String.valueOf(id));
+        }
+        return send(json("/batch", "DELETE", ids.toString()), 200);
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder json(String path, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private String send(HttpRequest.Builder request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request.header("Accept", "application/json").build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(response.request().method() + " " + response.request().uri() + ": "
+                    + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    private static String employeeJson(String id, String firstName, String lastName, String email) {
+        return "{" + (id == null ? "" : "\"id\":" + id + ",") + "\"firstName\":\"" + firstName
+                + "\",\"lastName\":\"" + lastName + "\",\"email\":\"" + email + "\"}";
+    }
+
+    private static String id(String employeeJson) {
+        Matcher matcher = ID.matcher(employeeJson);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No id in " + employeeJson);
+        }
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,61 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.memory.OffHeapEmployeeStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// lookups in an OffHeapEmployeeStore of 1M employees. Direct memory of the store and the heap used after loading
+// it are printed at setup, e.g. -p rows=10000000 -jvmArgs "-Xmx256m -XX:MaxDirectMemorySize=2g"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx256m", "-XX:MaxDirectMemorySize=2g"})
+public class OffHeapStoreBenchmark {
+
+    private static final String TENANT = "default";
+
+    @Param({"1000000"})
+    public int rows;
+
+    private OffHeapEmployeeStore store;
+
+    @Setup
+    public void setUp() {
+        store = new OffHeapEmployeeStore(64 * 1024 * 1024, rows);
+        for (long id = 1; id <= rows; id++) {
+            store.put(TENANT, new EmployeeDto(id, BenchmarkData.firstName(id), BenchmarkData.lastName(id),
+                    BenchmarkData.email(id), 0L));
+        }
+        System.gc();
+        System.out.printf("%n%d employees: %d MB direct memory, %d MB heap used%n", rows,
+                store.offHeapBytes() / (1024 * 1024),
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024));
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public Optional<EmployeeDto> findById() {
+        return store.findById(TENANT, randomId());
+    }
+
+    @Benchmark
+    public Optional<EmployeeDto> findByEmail() {
+        return store.findByEmail(TENANT, BenchmarkData.email(randomId()));
+    }
+
+    @Benchmark
+    public Optional<EmployeeDto> findByName() {
+        long id = randomId();
+        return store.findByName(TENANT, BenchmarkData.firstName(id), BenchmarkData.lastName(id));
+    }
+}
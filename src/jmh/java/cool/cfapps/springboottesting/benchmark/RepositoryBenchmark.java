@@ -0,0 +1,140 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import cool.cfapps.springboottesting.SpringBootTestingApplication;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.entity.Employee;
+import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.service.EmployeeService;
+import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeService.readAllEmployees (projection and entity path) and the EmployeeRepository finders against an embedded H2 database that is
+ * migrated by Flyway and loaded with the given number of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private EmployeeService employeeService;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmployeeDatabase.start("bench_repository_" + rows);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        employeeService = context.getBean(EmployeeService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        EmployeeDatabase.load(context.getBean(JdbcTemplate.class), rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<EmployeeDto> readAllEmployees() {
+        return employeeService.readAllEmployees();
+    }
+
+    // the entity path readAllEmployees used before the projection: managed entities with dirty-checking snapshots
+    // in a read-write transaction, copied into EmployeeDto afterwards
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<EmployeeDto> readAllEmployeesAsEntities() {
+        return transactionTemplate.execute(status -> EntityDtoUtil.toDtoList(employeeRepository.findAll()));
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail(BenchmarkData.email(randomId()));
+    }
+
+    @Benchmark
+    public Optional<Employee> findByJPQL() {
+        long id = randomId();
+        return employeeRepository.findByJPQL(BenchmarkData.firstName(id), BenchmarkData.lastName(id));
+    }
+
+    @Benchmark
+    public Optional<Employee> findByJPQLNamedParams() {
+        long id = randomId();
+        return employeeRepository.findByJPQLNamedParams(BenchmarkData.firstName(id), BenchmarkData.lastName(id));
+    }
+
+    @Benchmark
+    public Optional<Employee> findByNativeSql() {
+        long id = randomId();
+        return employeeRepository.findByNativeSql(BenchmarkData.firstName(id), BenchmarkData.lastName(id));
+    }
+
+    @Benchmark
+    public Optional<Employee> findByNativeSqlNamedParams() {
+        long id = randomId();
+        return employeeRepository.findByNativeSqlNamedParams(BenchmarkData.firstName(id), BenchmarkData.lastName(id));
+    }
+
+    static final class EmployeeDatabase {
+
+        private EmployeeDatabase() {
+        }
+
+        static ConfigurableApplicationContext start(String databaseName, String... extraArgs) {
+            List<String> args = new ArrayList<>(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.h2.console.enabled=false",
+                    "--logging.level.root=WARN"));
+            args.addAll(List.of(extraArgs));
+            return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .logStartupInfo(false)
+                    .run(args.toArray(String[]::new));
+        }
+
+        // plain JDBC batches, loading a million rows through JPA would dominate the setup time
+        static void load(JdbcTemplate jdbcTemplate, int rows) {
+            List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (long id = 1; id <= rows; id++) {
+                batch.add(new Object[]{id, BenchmarkData.firstName(id), BenchmarkData.lastName(id),
+                        BenchmarkData.email(id)});
+                if (batch.size() == INSERT_BATCH_SIZE || id == rows) {
+                    jdbcTemplate.batchUpdate(
+                            "INSERT INTO employees (id, first_name, last_name, email, version) VALUES (?, ?, ?, ?, 0)",
+                            batch);
+                    batch.clear();
+                }
+            }
+            jdbcTemplate.execute("ALTER SEQUENCE employees_seq RESTART WITH " + (rows + 1));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.search.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// type-ahead searches against an EmployeeSearchIndex of 1M employees, sample mode reports the percentiles
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SearchBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private EmployeeSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = EmployeeSearchIndex.build(consumer -> {
+            for (long id = 1; id <= rows; id++) {
+                consumer.accept(new EmployeeDto(id, BenchmarkData.firstName(id), BenchmarkData.lastName(id),
+                        BenchmarkData.email(id), 0L));
+            }
+        });
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    // short prefix shared by every employee
+    @Benchmark
+    public List<EmployeeDto> broadPrefix() {
+        return index.search("fi", 10);
+    }
+
+    @Benchmark
+    public List<EmployeeDto> lastNamePrefix() {
+        String lastName = BenchmarkData.lastName(randomId());
+        return index.search(lastName.substring(0, lastName.length() - 1), 10);
+    }
+
+    @Benchmark
+    public List<EmployeeDto> emailExact() {
+        String email = BenchmarkData.email(randomId());
+        return index.search(email.substring(0, email.indexOf('@')), 10);
+    }
+
+    @Benchmark
+    public List<EmployeeDto> firstAndLastName() {
+        long id = randomId();
+        return index.search(BenchmarkData.firstName(id) + " " + BenchmarkData.lastName(id), 10);
+    }
+}
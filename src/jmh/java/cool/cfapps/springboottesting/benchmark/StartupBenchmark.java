@@ -0,0 +1,139 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request of a fresh JVM: every invocation starts the application as a child process and
+ * measures until GET /api/v1/employees answers 200; the resident set size at that moment is printed per run.
+ * <ul>
+ *     <li>jar: java -jar with the executable jar</li>
+ *     <li>aot: the same with -Dspring.aot.enabled=true, the jar has to be built with -Pnative</li>
+ *     <li>cds: plain jar and target/cds/lib with the archive of target/cds/application.jsa, built with -Pcds</li>
+ * </ul>
+ * e.g. {@code mvn -Pjmh,cds,native -DskipTests verify -Djmh.args="StartupBenchmark -p mode=jar,aot,cds"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final String JAR = "SpringBootTesting-0.0.1-SNAPSHOT";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"jar"})
+    public String mode;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private Process process;
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        int port = freePort();
+        process = new ProcessBuilder(command(port))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/employees"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(mode + ": application exited with " + process.exitValue());
+            }
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    System.out.printf("%n%s: RSS %d MB%n", mode, residentSetKb(process.pid()) / 1024);
+                    return status;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException(mode + ": no answer within " + STARTUP_TIMEOUT);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    private List<String> command(int port) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx512m");
+        switch (mode) {
+            case "jar" -> command.addAll(List.of("-jar", executableJar()));
+            case "aot" -> command.addAll(List.of("-Dspring.aot.enabled=true", "-jar", executableJar()));
+            case "cds" -> {
+                Path archive = TARGET.resolve("cds/application.jsa");
+                require(archive, "-Pcds");
+                command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:auto",
+                        "-cp", TARGET.resolve(JAR + ".jar") + System.getProperty("path.separator")
+                                + TARGET.resolve("cds/lib") + "/*",
+                        "cool.cfapps.springboottesting.SpringBootTestingApplication"));
+            }
+            default -> throw new IllegalArgumentException(mode);
+        }
+        command.addAll(List.of("--server.port=" + port, "--spring.jpa.show-sql=false", "--logging.level.root=WARN"));
+        return command;
+    }
+
+    // with -Pcds the executable jar has the exec classifier
+    private static String executableJar() {
+        Path exec = TARGET.resolve(JAR + "-exec.jar");
+        return (Files.exists(exec) ? exec : TARGET.resolve(JAR + ".jar")).toString();
+    }
+
+    private static void require(Path file, String profile) {
+        if (!Files.exists(file)) {
+            throw new IllegalStateException(file + " is missing, build with " + profile);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Linux only, -1 elsewhere
+    private static long residentSetKb(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,97 @@
+package cool.cfapps.springboottesting.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import cool.cfapps.springboottesting.config.EmployeeProtobufHttpMessageConverter;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// encode time of the list endpoint payload per wire format, with and without gzip (the Tomcat compression).
+// The bytes on the wire are printed once per format at setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final Type EMPLOYEE_LIST = new ParameterizedTypeReference<List<EmployeeDto>>() {
+    }.getType();
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    public String format;
+
+    @Param({"10000"})
+    public int size;
+
+    private List<EmployeeDto> employeeDtos;
+    private ObjectWriter writer;
+    private EmployeeProtobufHttpMessageConverter protobufConverter;
+
+    @Setup
+    public void setUp() throws IOException {
+        employeeDtos = BenchmarkData.employeeDtos(size);
+        TypeReference<List<EmployeeDto>> listType = new TypeReference<>() {
+        };
+        switch (format) {
+            case "json" -> writer = new ObjectMapper().writerFor(listType);
+            case "smile" -> writer = new ObjectMapper(new SmileFactory()).writerFor(listType);
+            case "cbor" -> writer = new ObjectMapper(new CBORFactory()).writerFor(listType);
+            case "protobuf" -> protobufConverter = new EmployeeProtobufHttpMessageConverter();
+            default -> throw new IllegalArgumentException(format);
+        }
+        System.out.printf("%n%s, %d employees: %d bytes, %d bytes gzip%n",
+                format, size, encode().length, encodeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128 * size);
+        write(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * size);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8 * 1024)) {
+            write(gzip);
+        }
+        return out.toByteArray();
+    }
+
+    private void write(OutputStream out) throws IOException {
+        if (protobufConverter == null) {
+            writer.writeValue(out, employeeDtos);
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        protobufConverter.write(employeeDtos, EMPLOYEE_LIST, EmployeeProtobufHttpMessageConverter.APPLICATION_PROTOBUF,
+                new HttpOutputMessage() {
+                    @Override
+                    public OutputStream getBody() {
+                        return out;
+                    }
+
+                    @Override
+                    public HttpHeaders getHeaders() {
+                        return headers;
+                    }
+                });
+    }
+}
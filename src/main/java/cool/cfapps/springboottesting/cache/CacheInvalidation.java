@@ -0,0 +1,7 @@
+package cool.cfapps.springboottesting.cache;
+
+/**
+ * Invalidation message exchanged between cache instances, origin identifies the sending instance.
+ */
+public record CacheInvalidation(String origin, long employeeId) {
+}
@@ -0,0 +1,14 @@
+package cool.cfapps.springboottesting.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport for cache invalidations between application instances. Implementations deliver every published
+ * invalidation to all subscribers, including the publishing instance itself.
+ */
+public interface CacheInvalidationChannel {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> subscriber);
+}
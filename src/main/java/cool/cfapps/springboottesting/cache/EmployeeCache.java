@@ -0,0 +1,126 @@
+package cool.cfapps.springboottesting.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * In-process cache in front of the employee lookups, backed by Caffeine (W-TinyLFU eviction).
+ * <p>
+ * Holds id -> employee and email -> id. Only the id entries are invalidated on writes; an email entry is checked
+ * against the employee it points to when it is read, so updates do not need to know the previous email.
+ * Cached employees are handed out as copies.
+ * <p>
+ * Ids are unique across tenants, every cached employee keeps the tenant it was loaded for and is only handed out
+ * to that tenant: for the others the id does not exist. Emails are only unique per tenant, so the email entries
+ * are keyed by tenant and email.
+ */
+@Component
+public class EmployeeCache {
+
+    private final Cache<Long, TenantEmployee> employeesById;
+    private final Cache<TenantEmail, Long> idsByEmail;
+    private final EmployeeCacheProperties properties;
+    private final CacheInvalidationChannel invalidationChannel;
+    private final String origin = UUID.randomUUID().toString();
+
+    public EmployeeCache(EmployeeCacheProperties properties, CacheInvalidationChannel invalidationChannel) {
+        this.properties = properties;
+        this.invalidationChannel = invalidationChannel;
+        this.employeesById = newCache(properties);
+        this.idsByEmail = newCache(properties);
+
+        if (properties.getMode() == EmployeeCacheProperties.Mode.NEAR) {
+            invalidationChannel.subscribe(invalidation -> {
+                if (!origin.equals(invalidation.origin())) {
+                    employeesById.invalidate(invalidation.employeeId());
+                }
+            });
+        }
+    }
+
+    private static <K, V> Cache<K, V> newCache(EmployeeCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.isEnabled() ? properties.getMaximumSize() : 0)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // concurrent misses for the same id wait for a single load. Disabled, the loads bypass Caffeine: with a
+    // maximum size of 0 it would run them one after the other on the same key and keep nothing
+    public Optional<EmployeeDto> getById(long id, Function<Long, Optional<EmployeeDto>> loader) {
+        if (!isEnabled()) {
+            return loader.apply(id);
+        }
+        String tenantId = TenantContext.current();
+        TenantEmployee cached = employeesById.get(id,
+                key -> loader.apply(key).map(employeeDto -> new TenantEmployee(tenantId, employeeDto)).orElse(null));
+        return Optional.ofNullable(cached)
+                .filter(employee -> employee.tenantId().equals(tenantId))
+                .map(employee -> employee.employee().copyOf());
+    }
+
+    public Optional<Long> getIdByEmail(String email, Function<String, Optional<Long>> loader) {
+        if (!isEnabled()) {
+            return loader.apply(email);
+        }
+        return Optional.ofNullable(idsByEmail.get(new TenantEmail(TenantContext.current(), email),
+                key -> loader.apply(key.email()).orElse(null)));
+    }
+
+    public void put(EmployeeDto employeeDto) {
+        employeesById.put(employeeDto.getId(), new TenantEmployee(TenantContext.current(), employeeDto.copyOf()));
+    }
+
+    public void evict(long id) {
+        employeesById.invalidate(id);
+        if (properties.getMode() == EmployeeCacheProperties.Mode.NEAR) {
+            invalidationChannel.publish(new CacheInvalidation(origin, id));
+        }
+    }
+
+    public void evictEmail(String email) {
+        idsByEmail.invalidate(new TenantEmail(TenantContext.current(), email));
+    }
+
+    // evict once the writing transaction has committed, so a concurrent reader cannot cache the old row again
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.type() != EmployeeChangedEvent.ChangeType.CREATED) {
+            evict(event.id());
+        } else if (properties.getMode() == EmployeeCacheProperties.Mode.NEAR) {
+            // nothing to evict, but the other instances have to move their EmployeeListVersion
+            invalidationChannel.publish(new CacheInvalidation(origin, event.id()));
+        }
+    }
+
+    public Map<String, EmployeeCacheStats> stats() {
+        return Map.of(
+                "employeesById", EmployeeCacheStats.of(employeesById.stats(), employeesById.estimatedSize()),
+                "idsByEmail", EmployeeCacheStats.of(idsByEmail.stats(), idsByEmail.estimatedSize()));
+    }
+
+    public Map<String, Cache<?, ?>> caches() {
+        return Map.of("employeesById", employeesById, "idsByEmail", idsByEmail);
+    }
+
+    private record TenantEmployee(String tenantId, EmployeeDto employee) {
+    }
+
+    private record TenantEmail(String tenantId, String email) {
+    }
+}
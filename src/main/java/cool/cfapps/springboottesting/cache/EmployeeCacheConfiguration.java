@@ -0,0 +1,16 @@
+package cool.cfapps.springboottesting.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EmployeeCacheConfiguration {
+
+    // replace with a bean backed by a real message bus to share invalidations between instances
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationChannel cacheInvalidationChannel() {
+        return new InMemoryCacheInvalidationChannel();
+    }
+}
@@ -0,0 +1,23 @@
+package cool.cfapps.springboottesting.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.cache")
+public class EmployeeCacheProperties {
+
+    public enum Mode {
+        // invalidations stay in this JVM
+        LOCAL,
+        // invalidations are also sent to (and received from) the other instances through the invalidation channel
+        NEAR
+    }
+
+    private boolean enabled = true;
+    private long maximumSize = 100_000;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+    private Mode mode = Mode.LOCAL;
+}
@@ -0,0 +1,10 @@
+package cool.cfapps.springboottesting.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public record EmployeeCacheStats(long hits, long misses, long evictions, double hitRate, long size) {
+
+    static EmployeeCacheStats of(CacheStats stats, long size) {
+        return new EmployeeCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate(), size);
+    }
+}
@@ -0,0 +1,79 @@
+package cool.cfapps.springboottesting.cache;
+
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.outbox.EmployeeChangeLog;
+import cool.cfapps.springboottesting.routing.ReadWriteRouting;
+import cool.cfapps.springboottesting.routing.ReplicaProperties;
+import cool.cfapps.springboottesting.shard.ShardedEmployeeStore;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the employee list, the ETag of {@code GET /api/v1/employees}.
+ * <p>
+ * Counts the employee changes committed since startup, so a conditional request is answered without reading
+ * the table. The counter moves after the commit: read the ETag before the list, it may then be older than the
+ * list (the next request is answered in full again) but never newer. The instance part keeps the ETags of a
+ * restarted or another instance apart. The counter is shared by all tenants, the tenant is part of the ETag.
+ * <p>
+ * The writes of the other instances: in near cache mode their invalidations move the counter. In local cache mode
+ * nothing reaches this instance, so the ETag also holds the last relayed seq of the change log (one read of a
+ * single row); a write on another instance then moves the ETag within about the relay interval. Without a change
+ * log (the reactive profile) a list in local cache mode gets no ETag, and neither does a list read from the shards,
+ * whose writes move no version.
+ * <p>
+ * The ETag is weak: Tomcat does not gzip responses carrying a strong ETag (compression changes the bytes), and
+ * If-None-Match, the only condition checked against it, uses the weak comparison anyway.
+ * <p>
+ * A list read from a replica may be older than the counter, so it gets no ETag (see {@link #listETag()}).
+ */
+@Component
+public class EmployeeListVersion {
+
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong changes = new AtomicLong();
+    private final boolean replicaEnabled;
+    // only used in local cache mode
+    private final EmployeeChangeLog changeLog;
+    private final boolean shared;
+
+    public EmployeeListVersion(CacheInvalidationChannel invalidationChannel, ReplicaProperties replicaProperties,
+                               EmployeeCacheProperties cacheProperties, ObjectProvider<EmployeeChangeLog> changeLog,
+                               ObjectProvider<ShardedEmployeeStore> shardedEmployeeStore) {
+        this.replicaEnabled = replicaProperties.isEnabled();
+        boolean near = cacheProperties.getMode() == EmployeeCacheProperties.Mode.NEAR;
+        this.changeLog = near ? null : changeLog.getIfAvailable();
+        this.shared = (near || this.changeLog != null) && shardedEmployeeStore.getIfAvailable() == null;
+        invalidationChannel.subscribe(invalidation -> changes.incrementAndGet());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    // null when the writes of the other instances are not seen
+    @Nullable
+    public String eTag() {
+        if (!shared) {
+            return null;
+        }
+        String eTag = instance + "-" + TenantContext.current() + "-" + changes.get();
+        if (changeLog != null) {
+            eTag += "-" + changeLog.lastSeq();
+        }
+        return "W/\"" + eTag + "\"";
+    }
+
+    // the ETag for a list read by the current request, null when that read goes to the replica
+    @Nullable
+    public String listETag() {
+        return replicaEnabled && !ReadWriteRouting.isPinnedToPrimary() ? null : eTag();
+    }
+}
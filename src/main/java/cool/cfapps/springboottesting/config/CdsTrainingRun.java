@@ -0,0 +1,29 @@
+package cool.cfapps.springboottesting.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * employees.cds.training-run=true: the application exits as soon as it is ready, so a JVM started with
+ * -XX:ArchiveClassesAtExit dumps the classes of a complete startup (see the cds profile in pom.xml).
+ * Checked at runtime rather than as a condition, conditions are fixed at build time by Spring AOT.
+ */
+@Component
+public class CdsTrainingRun {
+
+    private final Environment environment;
+
+    public CdsTrainingRun(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (environment.getProperty("employees.cds.training-run", Boolean.class, false)) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package cool.cfapps.springboottesting.config;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import cool.cfapps.springboottesting.dto.CreateEmployeeDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * application/x-protobuf for the employee DTOs, following src/main/proto/employee.proto.
+ * <p>
+ * Encoded and decoded field by field with protobuf's CodedOutputStream / CodedInputStream straight from and into
+ * the DTOs: no generated message classes, so there is no protoc step in the build and no copy of every employee
+ * into a message object before it is written.
+ */
+public class EmployeeProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    // tags: (field number << 3) | wire type (0 = varint, 2 = length delimited)
+    private static final int EMPLOYEE_ID = 1 << 3;
+    private static final int EMPLOYEE_FIRST_NAME = 2 << 3 | 2;
+    private static final int EMPLOYEE_LAST_NAME = 3 << 3 | 2;
+    private static final int EMPLOYEE_EMAIL = 4 << 3 | 2;
+    private static final int EMPLOYEE_VERSION = 5 << 3;
+    private static final int CREATE_EMPLOYEE_FIRST_NAME = 1 << 3 | 2;
+    private static final int CREATE_EMPLOYEE_LAST_NAME = 2 << 3 | 2;
+    private static final int CREATE_EMPLOYEE_EMAIL = 3 << 3 | 2;
+    private static final int LIST_ELEMENT = 1 << 3 | 2;
+
+    private enum Message {
+        EMPLOYEE, EMPLOYEE_LIST, CREATE_EMPLOYEE, CREATE_EMPLOYEE_LIST
+    }
+
+    public EmployeeProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return messageOf(clazz) != null;
+    }
+
+    // asked with the raw class when Spring MVC lists the producible media types, the element type is checked by
+    // canRead / canWrite
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return messageOf(type) != null && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return messageOf(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    // the message of EmployeeDto, CreateEmployeeDto and lists of them, null for anything else
+    @Nullable
+    private static Message messageOf(Type type) {
+        if (type == EmployeeDto.class) {
+            return Message.EMPLOYEE;
+        }
+        if (type == CreateEmployeeDto.class) {
+            return Message.CREATE_EMPLOYEE;
+        }
+        if (type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() instanceof Class<?> raw && raw.isAssignableFrom(ArrayList.class)) {
+            Type element = parameterizedType.getActualTypeArguments()[0];
+            if (element == EmployeeDto.class) {
+                return Message.EMPLOYEE_LIST;
+            }
+            if (element == CreateEmployeeDto.class) {
+                return Message.CREATE_EMPLOYEE_LIST;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        Message message = messageOf(type != null ? type : object.getClass());
+        if (message == null) {
+            throw new IllegalArgumentException("Not an employee message: " + type);
+        }
+        CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody(), BUFFER_SIZE);
+        switch (message) {
+            case EMPLOYEE -> writeEmployee(out, (EmployeeDto) object);
+            case CREATE_EMPLOYEE -> writeCreateEmployee(out, (CreateEmployeeDto) object);
+            case EMPLOYEE_LIST -> {
+                for (Object element : (Collection<?>) object) {
+                    EmployeeDto employeeDto = (EmployeeDto) element;
+                    out.writeUInt32NoTag(LIST_ELEMENT);
+                    out.writeUInt32NoTag(employeeSize(employeeDto));
+                    writeEmployee(out, employeeDto);
+                }
+            }
+            case CREATE_EMPLOYEE_LIST -> {
+                for (Object element : (Collection<?>) object) {
+                    CreateEmployeeDto createEmployeeDto = (CreateEmployeeDto) element;
+                    out.writeUInt32NoTag(LIST_ELEMENT);
+                    out.writeUInt32NoTag(createEmployeeSize(createEmployeeDto));
+                    writeCreateEmployee(out, createEmployeeDto);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        Message message = messageOf(type);
+        if (message == null) {
+            throw new HttpMessageNotReadableException("Not an employee message: " + type, inputMessage);
+        }
+        CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody(), BUFFER_SIZE);
+        try {
+            return switch (message) {
+                case EMPLOYEE -> readEmployee(in);
+                case CREATE_EMPLOYEE -> readCreateEmployee(in);
+                case EMPLOYEE_LIST -> readList(in, false);
+                case CREATE_EMPLOYEE_LIST -> readList(in, true);
+            };
+        } catch (InvalidProtocolBufferException e) {
+            throw new HttpMessageNotReadableException("Invalid " + message + " message: " + e.getMessage(), e,
+                    inputMessage);
+        }
+    }
+
+    // proto3: fields holding the default value are not written
+    private static void writeEmployee(CodedOutputStream out, EmployeeDto employeeDto) throws IOException {
+        if (employeeDto.getId() != 0) {
+            out.writeInt64(1, employeeDto.getId());
+        }
+        writeString(out, 2, employeeDto.getFirstName());
+        writeString(out, 3, employeeDto.getLastName());
+        writeString(out, 4, employeeDto.getEmail());
+        if (employeeDto.getVersion() != null) {
+            out.writeInt64(5, employeeDto.getVersion());
+        }
+    }
+
+    private static int employeeSize(EmployeeDto employeeDto) {
+        int size = employeeDto.getId() != 0 ? CodedOutputStream.computeInt64Size(1, employeeDto.getId()) : 0;
+        size += stringSize(2, employeeDto.getFirstName());
+        size += stringSize(3, employeeDto.getLastName());
+        size += stringSize(4, employeeDto.getEmail());
+        if (employeeDto.getVersion() != null) {
+            size += CodedOutputStream.computeInt64Size(5, employeeDto.getVersion());
+        }
+        return size;
+    }
+
+    private static void writeCreateEmployee(CodedOutputStream out, CreateEmployeeDto createEmployeeDto)
+            throws IOException {
+        writeString(out, 1, createEmployeeDto.getFirstName());
+        writeString(out, 2, createEmployeeDto.getLastName());
+        writeString(out, 3, createEmployeeDto.getEmail());
+    }
+
+    private static int createEmployeeSize(CreateEmployeeDto createEmployeeDto) {
+        return stringSize(1, createEmployeeDto.getFirstName())
+                + stringSize(2, createEmployeeDto.getLastName())
+                + stringSize(3, createEmployeeDto.getEmail());
+    }
+
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            out.writeString(field, value);
+        }
+    }
+
+    private static int stringSize(int field, String value) {
+        return value != null && !value.isEmpty() ? CodedOutputStream.computeStringSize(field, value) : 0;
+    }
+
+    // reads up to the end of the input or of the current limit, unknown fields are skipped
+    private static EmployeeDto readEmployee(CodedInputStream in) throws IOException {
+        EmployeeDto employeeDto = new EmployeeDto();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (tag) {
+                case EMPLOYEE_ID -> employeeDto.setId(in.readInt64());
+                case EMPLOYEE_FIRST_NAME -> employeeDto.setFirstName(in.readStringRequireUtf8());
+                case EMPLOYEE_LAST_NAME -> employeeDto.setLastName(in.readStringRequireUtf8());
+                case EMPLOYEE_EMAIL -> employeeDto.setEmail(in.readStringRequireUtf8());
+                case EMPLOYEE_VERSION -> employeeDto.setVersion(in.readInt64());
+                default -> in.skipField(tag);
+            }
+        }
+        return employeeDto;
+    }
+
+    private static CreateEmployeeDto readCreateEmployee(CodedInputStream in) throws IOException {
+        CreateEmployeeDto createEmployeeDto = new CreateEmployeeDto();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (tag) {
+                case CREATE_EMPLOYEE_FIRST_NAME -> createEmployeeDto.setFirstName(in.readStringRequireUtf8());
+                case CREATE_EMPLOYEE_LAST_NAME -> createEmployeeDto.setLastName(in.readStringRequireUtf8());
+                case CREATE_EMPLOYEE_EMAIL -> createEmployeeDto.setEmail(in.readStringRequireUtf8());
+                default -> in.skipField(tag);
+            }
+        }
+        return createEmployeeDto;
+    }
+
+    private static List<Object> readList(CodedInputStream in, boolean create) throws IOException {
+        List<Object> elements = new ArrayList<>();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            if (tag != LIST_ELEMENT) {
+                in.skipField(tag);
+                continue;
+            }
+            int limit = in.pushLimit(in.readRawVarint32());
+            elements.add(create ? readCreateEmployee(in) : readEmployee(in));
+            in.popLimit(limit);
+        }
+        return elements;
+    }
+}
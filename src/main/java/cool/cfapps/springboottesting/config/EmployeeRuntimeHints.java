@@ -0,0 +1,30 @@
+package cool.cfapps.springboottesting.config;
+
+import cool.cfapps.springboottesting.tenant.TenantIdentifierResolver;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Native image hints Spring AOT cannot derive from the bean definitions. The DTOs Jackson binds are registered
+ * with @RegisterReflectionForBinding on {@link NativeConfiguration}; Employee and the repositories are handled
+ * by the JPA and Spring Data AOT processing.
+ */
+public class EmployeeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Flyway scripts per database (spring.flyway.locations=classpath:db/migration/{vendor})
+        hints.resources().registerPattern("db/migration/*/*.sql");
+        // created by Hibernate from hibernate.tenant_identifier_resolver
+        hints.reflection().registerType(TenantIdentifierResolver.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        // looked up by VirtualThreadConfiguration, exists from Java 21 on
+        hints.reflection().registerType(Executors.class, type -> type.withMethod("newVirtualThreadPerTaskExecutor",
+                List.of(), ExecutableMode.INVOKE));
+    }
+}
@@ -0,0 +1,25 @@
+package cool.cfapps.springboottesting.config;
+
+import cool.cfapps.springboottesting.dto.BatchResultDto;
+import cool.cfapps.springboottesting.dto.CreateEmployeeDto;
+import cool.cfapps.springboottesting.dto.EmployeeChangeDto;
+import cool.cfapps.springboottesting.dto.EmployeeChangesDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.dto.ExportJobDto;
+import cool.cfapps.springboottesting.dto.ImportErrorDto;
+import cool.cfapps.springboottesting.dto.ImportResultDto;
+import cool.cfapps.springboottesting.reactive.EmployeeRow;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+// Jackson reads and writes the DTOs through the Lombok generated accessors: constructors, fields and accessors
+// are registered for reflection, including the ones of nested types
+@Configuration
+@ImportRuntimeHints(EmployeeRuntimeHints.class)
+@RegisterReflectionForBinding({
+        EmployeeDto.class, CreateEmployeeDto.class, BatchResultDto.class, EmployeeChangeDto.class,
+        EmployeeChangesDto.class, ExportJobDto.class, ImportResultDto.class, ImportErrorDto.class, EmployeeRow.class
+})
+public class NativeConfiguration {
+}
@@ -0,0 +1,74 @@
+package cool.cfapps.springboottesting.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in (employees.virtual-threads.enabled=true, Java 21+): Tomcat request processing and the MVC async
+ * executor run on virtual threads, and JDBC access is bounded by {@link ConnectionLimitingDataSource}.
+ * The project is compiled for Java 17, so the virtual thread executor is looked up reflectively.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "employees.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(newVirtualThreadPerTaskExecutor());
+    }
+
+    // used for StreamingResponseBody and other async request processing
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ObjectProvider<TaskDecorator> taskDecorator) {
+        TaskExecutorAdapter executor = new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+        taskDecorator.ifUnique(executor::setTaskDecorator);
+        return executor;
+    }
+
+    // static and bound by hand: post processors are created before configuration properties beans
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    VirtualThreadProperties properties = properties(environment);
+                    return new ConnectionLimitingDataSource(dataSource, properties.getMaxConcurrentConnections(),
+                            properties.getConnectionAcquireTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static VirtualThreadProperties properties(Environment environment) {
+        return Binder.get(environment)
+                .bindOrCreate("employees.virtual-threads", VirtualThreadProperties.class);
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("employees.virtual-threads.enabled requires Java 21 or later, running on "
+                    + Runtime.version(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package cool.cfapps.springboottesting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.virtual-threads")
+public class VirtualThreadProperties {
+
+    // needs Java 21, startup fails on older runtimes
+    private boolean enabled = false;
+    // should match the connection pool size (spring.datasource.hikari.maximum-pool-size)
+    private int maxConcurrentConnections = 10;
+    private Duration connectionAcquireTimeout = Duration.ofSeconds(30);
+}
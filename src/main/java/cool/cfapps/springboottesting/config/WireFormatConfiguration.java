@@ -0,0 +1,42 @@
+package cool.cfapps.springboottesting.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary representations of the employee API next to JSON, chosen by content negotiation:
+ * application/x-jackson-smile, application/cbor and application/x-protobuf (Accept for responses, Content-Type
+ * for request bodies).
+ * <p>
+ * Spring MVC would add Smile and CBOR converters on its own; declared here they use Boot's
+ * Jackson2ObjectMapperBuilder, so the spring.jackson.* settings apply to all three Jackson formats alike.
+ */
+@Configuration
+public class WireFormatConfiguration implements WebMvcConfigurer {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // appended, not declared as a bean: Boot puts additional converter beans first, which would make protobuf
+    // the answer to Accept: */*. JSON stays the default
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new EmployeeProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,49 @@
+package cool.cfapps.springboottesting.controller;
+
+import cool.cfapps.springboottesting.dto.BatchResultDto;
+import cool.cfapps.springboottesting.dto.CreateEmployeeDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.service.EmployeeBatchService;
+import cool.cfapps.springboottesting.shard.ConditionalOnUnsharded;
+import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@ConditionalOnUnsharded
+@RequestMapping("/api/v1/employees/batch")
+public class EmployeeBatchController {
+
+    private final EmployeeBatchService employeeBatchService;
+
+    public EmployeeBatchController(EmployeeBatchService employeeBatchService) {
+        this.employeeBatchService = employeeBatchService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public BatchResultDto createEmployees(@RequestBody List<CreateEmployeeDto> createEmployeeDtos) {
+        List<EmployeeDto> employeeDtos = new ArrayList<>(createEmployeeDtos.size());
+        for (CreateEmployeeDto createEmployeeDto : createEmployeeDtos) {
+            employeeDtos.add(EntityDtoUtil.toDto(createEmployeeDto));
+        }
+        return employeeBatchService.createEmployees(employeeDtos);
+    }
+
+    @PutMapping
+    @ResponseStatus(HttpStatus.OK)
+    public BatchResultDto updateEmployees(@RequestBody List<EmployeeDto> employeeDtos) {
+        return employeeBatchService.updateEmployees(employeeDtos);
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.OK)
+    public BatchResultDto deleteEmployees(@RequestBody List<Long> ids) {
+        return employeeBatchService.deleteEmployees(ids);
+    }
+}
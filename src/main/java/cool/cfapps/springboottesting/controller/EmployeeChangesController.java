@@ -0,0 +1,41 @@
+package cool.cfapps.springboottesting.controller;
+
+import cool.cfapps.springboottesting.dto.EmployeeChangesDto;
+import cool.cfapps.springboottesting.outbox.EmployeeChangeLog;
+import cool.cfapps.springboottesting.shard.ConditionalOnUnsharded;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// incremental sync: start with since=0, then ask again with since=<next> of the previous answer.
+// 410 Gone: the changes after since have been purged, read all employees again and continue with the next
+// of the 410 answer (changes relayed while reading are delivered again, applying them twice is harmless)
+@RestController
+@Profile("!reactive")
+@ConditionalOnUnsharded
+@RequestMapping("/api/v1/employees/changes")
+public class EmployeeChangesController {
+
+    static final int MAX_CHANGES = 5000;
+
+    private final EmployeeChangeLog employeeChangeLog;
+
+    public EmployeeChangesController(EmployeeChangeLog employeeChangeLog) {
+        this.employeeChangeLog = employeeChangeLog;
+    }
+
+    @GetMapping
+    public ResponseEntity<EmployeeChangesDto> readChanges(@RequestParam(defaultValue = "0") long since,
+                                                          @RequestParam(defaultValue = "500") int limit) {
+        EmployeeChangesDto changes = employeeChangeLog.readChanges(since, Math.max(1, Math.min(limit, MAX_CHANGES)));
+        if (employeeChangeLog.isPurged(since)) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body(EmployeeChangesDto.builder().next(employeeChangeLog.lastSeq()).build());
+        }
+        return ResponseEntity.ok(changes);
+    }
+}
@@ -1,23 +1,51 @@
 package cool.cfapps.springboottesting.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cool.cfapps.springboottesting.cache.EmployeeListVersion;
 import cool.cfapps.springboottesting.dto.CreateEmployeeDto;
 import cool.cfapps.springboottesting.dto.EmployeeDto;
 import cool.cfapps.springboottesting.service.EmployeeService;
 import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/employees")
 public class EmployeeController {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
     private final EmployeeService employeeService;
+    private final EmployeeListVersion employeeListVersion;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter streamWriter;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, EmployeeListVersion employeeListVersion,
+                              ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.employeeListVersion = employeeListVersion;
+        this.objectMapper = objectMapper;
+        // flushing is done in batches by the stream endpoint, not after every element
+        this.streamWriter = objectMapper.writerFor(EmployeeDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
@@ -27,21 +55,93 @@ public class EmployeeController {
         return employeeService.createEmployee(employeeDto);
     }
 
+    // If-None-Match is answered with 304 from the list version alone, without reading the table
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<EmployeeDto> readAllEmployees() {
-        return employeeService.readAllEmployees();
+    public ResponseEntity<List<EmployeeDto>> readAllEmployees(WebRequest request) {
+        String eTag = employeeListVersion.listETag();
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+        return listResponse(eTag).body(employeeService.readAllEmployees());
+    }
+
+    // keyset page: GET /api/v1/employees?after=<last seen id>&limit=<page size>
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<EmployeeDto>> readEmployeesPage(@RequestParam(defaultValue = "0") long after,
+                                                               @RequestParam int limit, WebRequest request) {
+        String eTag = employeeListVersion.listETag();
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<EmployeeDto> page = employeeService.readEmployeesAfter(after, pageSize);
+
+        ResponseEntity.BodyBuilder response = listResponse(eTag);
+        if (page.size() == pageSize) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.get(page.size() - 1).getId())
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+    private static ResponseEntity.BodyBuilder listResponse(String eTag) {
+        return eTag == null ? ResponseEntity.ok() : ResponseEntity.ok().eTag(eTag);
+    }
+
+    // writes the JSON array element by element while the rows come off the database cursor
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamAllEmployees() {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                int[] written = {0};
+                employeeService.streamAllEmployees(employeeDto -> {
+                    try {
+                        streamWriter.writeValue(generator, employeeDto);
+                        if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<EmployeeDto> readEmployeeByEmail(@RequestParam String email) {
+        return withETag(employeeService.readEmployeeByEmail(email));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<EmployeeDto> readAllEmployees(@PathVariable Long id) {
-        return ResponseEntity.of(employeeService.readEmployee(id));
+        return withETag(employeeService.readEmployee(id));
     }
 
+    // If-Match: "<id>-<version>" (the ETag of GET /{id}) makes the update conditional, a stale ETag or the ETag of
+    // another employee is answered with 412 Precondition Failed; it takes precedence over the version in the body
     @PutMapping
-    @ResponseStatus(HttpStatus.OK)
-    public EmployeeDto updateEmployee(@RequestBody EmployeeDto employeeDto) {
-        return employeeService.updateEmployee(employeeDto);
+    public ResponseEntity<EmployeeDto> updateEmployee(@RequestBody EmployeeDto employeeDto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                      String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return withETag(employeeService.updateEmployee(employeeDto));
+        }
+        Long version = versionOf(ifMatch, employeeDto.getId());
+        if (version == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        employeeDto.setVersion(version);
+        try {
+            return withETag(employeeService.updateEmployee(employeeDto));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -49,4 +149,36 @@ public class EmployeeController {
     public void deleteEmployee(@PathVariable Long id) {
         employeeService.deleteEmployee(id);
     }
+
+    // strong ETag from the id and the version, which every update increments. A matching If-None-Match is
+    // answered with 304 by Spring MVC before the body is serialized
+    private static ResponseEntity<EmployeeDto> withETag(Optional<EmployeeDto> employeeDto) {
+        return employeeDto.map(EmployeeController::withETag).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<EmployeeDto> withETag(EmployeeDto employeeDto) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (employeeDto.getVersion() != null) {
+            response.eTag("\"" + employeeDto.getId() + "-" + employeeDto.getVersion() + "\"");
+        }
+        return response.body(employeeDto);
+    }
+
+    // null for anything but a single strong ETag holding the given id and a version
+    private static Long versionOf(String ifMatch, Long id) {
+        String eTag = ifMatch.trim();
+        if (eTag.length() < 5 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            return null;
+        }
+        String value = eTag.substring(1, eTag.length() - 1);
+        int separator = value.lastIndexOf('-');
+        if (separator <= 0 || !value.substring(0, separator).equals(String.valueOf(id))) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
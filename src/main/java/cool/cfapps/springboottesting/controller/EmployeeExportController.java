@@ -0,0 +1,91 @@
+package cool.cfapps.springboottesting.controller;
+
+import cool.cfapps.springboottesting.dto.ExportJobDto;
+import cool.cfapps.springboottesting.export.ExportFormat;
+import cool.cfapps.springboottesting.export.ExportJobService;
+import cool.cfapps.springboottesting.shard.ConditionalOnUnsharded;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.Optional;
+
+// POST starts an export, GET {id} polls it, GET {id}/file downloads the gzip file once the status is COMPLETED
+@RestController
+@Profile("!reactive")
+@ConditionalOnUnsharded
+@RequestMapping("/api/v1/employees/exports")
+public class EmployeeExportController {
+
+    // request attributes of Tomcat's sendfile support (see org.apache.tomcat.util.net.SendfileState)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
+    private final ExportJobService exportJobService;
+
+    public EmployeeExportController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ExportJobDto> startExport(@RequestParam(defaultValue = "CSV") ExportFormat format) {
+        ExportJobDto exportJobDto = exportJobService.startExport(format);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .replaceQuery(null)
+                        .path("/{id}")
+                        .buildAndExpand(exportJobDto.getId())
+                        .toUri())
+                .body(exportJobDto);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJobDto> readExport(@PathVariable String id) {
+        return ResponseEntity.of(exportJobService.readExport(id));
+    }
+
+    // full downloads go through Tomcat's sendfile (FileChannel.transferTo, the file is not copied through the
+    // heap), range requests are answered by Spring MVC with 206 Partial Content
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> readExportFile(@PathVariable String id, HttpServletRequest request,
+                                                   HttpServletResponse response) throws IOException {
+        Optional<ExportJobDto> exportJobDto = exportJobService.readExport(id);
+        if (exportJobDto.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<Resource> file = exportJobService.readExportFile(id);
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        Resource resource = file.get();
+        String contentDisposition = ContentDisposition.attachment().filename(resource.getFilename()).build().toString();
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED)) && request.getHeader(HttpHeaders.RANGE) == null) {
+            long length = resource.contentLength();
+            response.setContentType(GZIP.toString());
+            response.setContentLengthLong(length);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            request.setAttribute(SENDFILE_FILENAME, resource.getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
+                .body(resource);
+    }
+}
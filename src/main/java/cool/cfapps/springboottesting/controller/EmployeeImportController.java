@@ -0,0 +1,52 @@
+package cool.cfapps.springboottesting.controller;
+
+import cool.cfapps.springboottesting.dto.ImportResultDto;
+import cool.cfapps.springboottesting.imports.EmployeeImportService;
+import cool.cfapps.springboottesting.imports.ImportFormat;
+import cool.cfapps.springboottesting.shard.ConditionalOnUnsharded;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+// POST the file as request body (text/csv or application/x-ndjson, optionally Content-Encoding: gzip), not as
+// multipart form: the body is parsed while it is being received and never stored
+@RestController
+@Profile("!reactive")
+@ConditionalOnUnsharded
+@RequestMapping("/api/v1/employees/import")
+public class EmployeeImportController {
+
+    private final EmployeeImportService employeeImportService;
+
+    public EmployeeImportController(EmployeeImportService employeeImportService) {
+        this.employeeImportService = employeeImportService;
+    }
+
+    @PostMapping(consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ImportResultDto importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                           @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false)
+                                           String contentEncoding,
+                                           @RequestParam(defaultValue = "0") int fromChunk,
+                                           @RequestParam(required = false) String id,
+                                           InputStream body) throws IOException {
+        InputStream input = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 64 * 1024) : body;
+        return employeeImportService.importEmployees(input, ImportFormat.of(contentType), fromChunk, id);
+    }
+
+    // progress of a running import, or the result of a finished one (e.g. after the upload connection broke)
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportResultDto> readImport(@PathVariable String id) {
+        return ResponseEntity.of(employeeImportService.readImport(id));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,39 @@
+package cool.cfapps.springboottesting.controller;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.search.EmployeeSearchService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// type-ahead search: GET /api/v1/employees?q=ann&limit=10, ranked best match first
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1/employees")
+public class EmployeeSearchController {
+
+    static final int MAX_RESULTS = 100;
+
+    // null with shards (see ConditionalOnUnsharded): the search then answers 404 instead of GET ?q= listing all
+    @Nullable
+    private final EmployeeSearchService employeeSearchService;
+
+    public EmployeeSearchController(@Nullable EmployeeSearchService employeeSearchService) {
+        this.employeeSearchService = employeeSearchService;
+    }
+
+    @GetMapping(params = "q")
+    public ResponseEntity<List<EmployeeDto>> searchEmployees(@RequestParam String q,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        if (employeeSearchService == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(employeeSearchService.search(q, Math.max(1, Math.min(limit, MAX_RESULTS))));
+    }
+}
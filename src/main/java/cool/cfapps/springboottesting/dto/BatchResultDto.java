@@ -0,0 +1,46 @@
+package cool.cfapps.springboottesting.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class BatchResultDto {
+    private int requested;
+    private int processed;
+    @Builder.Default
+    private List<Long> notFound = new ArrayList<>();
+    @Builder.Default
+    private List<Long> conflicts = new ArrayList<>();
+    private int chunkSize;
+    // chunks (numbered from 0, chunkSize input items each) that were rolled back, e.g. on a duplicate email
+    @Builder.Default
+    private List<Integer> failedChunks = new ArrayList<>();
+    // ids of the failed chunks, none for creates
+    @Builder.Default
+    private List<Long> failed = new ArrayList<>();
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    public static BatchResultDto of(int requested, int processed, List<Long> notFound, List<Long> conflicts,
+                                    int chunkSize, List<Integer> failedChunks, List<Long> failed,
+                                    long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000d;
+        return BatchResultDto.builder()
+                .requested(requested)
+                .processed(processed)
+                .notFound(notFound)
+                .conflicts(conflicts)
+                .chunkSize(chunkSize)
+                .failedChunks(failedChunks)
+                .failed(failed)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(seconds > 0 ? processed / seconds : processed)
+                .build();
+    }
+}
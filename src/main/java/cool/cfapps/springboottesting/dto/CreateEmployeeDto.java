@@ -13,10 +13,9 @@ public class CreateEmployeeDto {
     private String email;
 
     public CreateEmployeeDto copyOf() {
-        return CreateEmployeeDto.builder()
-                .firstName(this.firstName)
-                .lastName(this.lastName)
-                .email(this.email)
-                .build();
+        return new CreateEmployeeDto(
+                this.firstName,
+                this.lastName,
+                this.email);
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package cool.cfapps.springboottesting.dto;
+
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class EmployeeChangeDto {
+    private long seq;
+    private EmployeeChangedEvent.ChangeType type;
+    private long employeeId;
+    private String tenantId;
+    private Instant changedAt;
+    // the current row when the change is read, null once the employee has been deleted
+    private EmployeeDto employee;
+}
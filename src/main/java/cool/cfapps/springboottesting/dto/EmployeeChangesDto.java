@@ -0,0 +1,20 @@
+package cool.cfapps.springboottesting.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class EmployeeChangesDto {
+    @Builder.Default
+    private List<EmployeeChangeDto> changes = new ArrayList<>();
+    // ask again with since=<next>
+    private long next;
+    // more changes are waiting after next
+    private boolean more;
+}
@@ -12,13 +12,14 @@ public class EmployeeDto {
     private String firstName;
     private String lastName;
     private String email;
+    private Long version;
 
     public EmployeeDto copyOf() {
-        return EmployeeDto.builder()
-                .id(this.id)
-                .firstName(this.firstName)
-                .lastName(this.lastName)
-                .email(this.email)
-                .build();
+        return new EmployeeDto(
+                this.id,
+                this.firstName,
+                this.lastName,
+                this.email,
+                this.version);
     }
 }
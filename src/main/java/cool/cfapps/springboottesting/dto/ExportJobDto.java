@@ -0,0 +1,22 @@
+package cool.cfapps.springboottesting.dto;
+
+import cool.cfapps.springboottesting.export.ExportFormat;
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class ExportJobDto {
+    private String id;
+    private ExportFormat format;
+    private String status;
+    private long rows;
+    private long bytes;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private String error;
+}
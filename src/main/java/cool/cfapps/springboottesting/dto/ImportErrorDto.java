@@ -0,0 +1,13 @@
+package cool.cfapps.springboottesting.dto;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class ImportErrorDto {
+    private long row;
+    private String message;
+}
@@ -0,0 +1,28 @@
+package cool.cfapps.springboottesting.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class ImportResultDto {
+    private String id;
+    private String status;
+    private long rows;
+    private long imported;
+    private long rejected;
+    // rows of the chunks before the requested fromChunk
+    private long skipped;
+    private int chunkSize;
+    // send the upload again with fromChunk=<resumeFromChunk> to continue after the last committed chunk
+    private int resumeFromChunk;
+    @Builder.Default
+    private List<ImportErrorDto> errors = new ArrayList<>();
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
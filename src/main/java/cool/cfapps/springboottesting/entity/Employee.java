@@ -2,6 +2,7 @@ package cool.cfapps.springboottesting.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.TenantId;
 
 @Data
 @AllArgsConstructor
@@ -10,10 +11,16 @@ import lombok.*;
 @EqualsAndHashCode
 @ToString
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+        @Index(name = "ux_employees_tenant_id_email", columnList = "tenant_id, email", unique = true),
+        @Index(name = "ix_employees_last_name_first_name", columnList = "last_name, first_name"),
+        @Index(name = "ix_employees_tenant_id_id", columnList = "tenant_id, id")
+})
 public class Employee {
+    // sequence ids are handed out in blocks of 50 (pooled-lo), which keeps JDBC insert batching enabled
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private long id;
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -21,13 +28,25 @@ public class Employee {
     private String lastName;
     @Column(nullable = false)
     private String email;
+    // optimistic lock: null until the entity has been persisted
+    @Version
+    private Long version;
+    // set by Hibernate from the current tenant on persist and added to every JPQL query, see TenantContext
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false)
+    private String tenantId;
+
+    public Employee(long id, String firstName, String lastName, String email, Long version) {
+        this(id, firstName, lastName, email, version, null);
+    }
 
     public Employee copyOf() {
-        return Employee.builder()
-                .id(this.id)
-                .firstName(this.firstName)
-                .lastName(this.lastName)
-                .email(this.email)
-                .build();
+        return new Employee(
+                this.id,
+                this.firstName,
+                this.lastName,
+                this.email,
+                this.version,
+                this.tenantId);
     }
 }
@@ -0,0 +1,23 @@
+package cool.cfapps.springboottesting.event;
+
+/**
+ * Published by the service layer after an employee has been created, updated or deleted.
+ */
+public record EmployeeChangedEvent(ChangeType type, long id) {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static EmployeeChangedEvent created(long id) {
+        return new EmployeeChangedEvent(ChangeType.CREATED, id);
+    }
+
+    public static EmployeeChangedEvent updated(long id) {
+        return new EmployeeChangedEvent(ChangeType.UPDATED, id);
+    }
+
+    public static EmployeeChangedEvent deleted(long id) {
+        return new EmployeeChangedEvent(ChangeType.DELETED, id);
+    }
+}
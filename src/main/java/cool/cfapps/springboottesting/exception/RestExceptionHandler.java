@@ -0,0 +1,56 @@
+package cool.cfapps.springboottesting.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Locale;
+
+// used by the servlet and the reactive controllers
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    private static final String EMAIL_INDEX = "ux_employees_tenant_id_email";
+
+    private final Counter notFoundCounter;
+
+    // controller test slices come without a meter registry, the counter then goes to the (empty) global one
+    public RestExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.notFoundCounter = Counter.builder("employees.not.found")
+                .description("ResourceNotFoundException thrown by a controller")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Void> handleResourceNotFound(ResourceNotFoundException e) {
+        notFoundCounter.increment();
+        return ResponseEntity.notFound().build();
+    }
+
+    // a stale version in the body: the client has to read the employee again. A stale If-Match is answered with
+    // 412 by the controller itself
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    // an email that is taken in the tenant conflicts with the current state, any other constraint (e.g. a missing
+    // first name, NOT NULL) is a bad request
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Void> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        return ResponseEntity.status(isEmailTaken(e) ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST).build();
+    }
+
+    // H2, MySQL and the R2DBC drivers name the violated index in the message of the most specific cause
+    private static boolean isEmailTaken(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(EMAIL_INDEX);
+    }
+}
@@ -0,0 +1,137 @@
+package cool.cfapps.springboottesting.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the employees of a tenant as gzip compressed CSV or NDJSON into a file.
+ * <p>
+ * The rows are read with a forward-only cursor on the export connection pool, fetchSize rows per round trip,
+ * and written as they arrive: heap use does not depend on the size of the table, and the export holds no
+ * connection (or transaction) of the application pool. Every statement runs in auto-commit mode.
+ */
+public class EmployeeExporter implements AutoCloseable {
+
+    private static final String SELECT_EMPLOYEES =
+            "SELECT id, first_name, last_name, email, version FROM employees WHERE tenant_id = ? ORDER BY id";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+
+    public EmployeeExporter(DataSource dataSource, JsonFactory jsonFactory, int fetchSize) {
+        this.dataSource = dataSource;
+        this.jsonFactory = jsonFactory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    // returns the number of compressed bytes written
+    long export(ExportFormat format, String tenantId, Path file, Runnable rowWritten) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        // closing the writer closes the gzip stream and the channel
+        try (OutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            switch (format) {
+                case CSV -> exportCsv(writer, tenantId, rowWritten);
+                case NDJSON -> exportNdjson(writer, tenantId, rowWritten);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return Files.size(file);
+    }
+
+    private void exportCsv(Writer writer, String tenantId, Runnable rowWritten) throws IOException {
+        writer.write("id,first_name,last_name,email,version\n");
+        jdbcTemplate.query(SELECT_EMPLOYEES, (ResultSet rs) -> {
+            try {
+                writer.write(Long.toString(rs.getLong(1)));
+                writer.write(',');
+                writeCsvField(writer, rs.getString(2));
+                writer.write(',');
+                writeCsvField(writer, rs.getString(3));
+                writer.write(',');
+                writeCsvField(writer, rs.getString(4));
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong(5)));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rowWritten.run();
+        }, tenantId);
+    }
+
+    // RFC 4180: quote fields containing a separator, a quote or a line break, double the quotes
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void exportNdjson(Writer writer, String tenantId, Runnable rowWritten) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            // every object ends with its own line break instead of the default space between root values
+            generator.setRootValueSeparator(null);
+            jdbcTemplate.query(SELECT_EMPLOYEES, (ResultSet rs) -> {
+                try {
+                    writeJson(generator, rs);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rowWritten.run();
+            }, tenantId);
+        }
+    }
+
+    // same field names as EmployeeDto
+    private static void writeJson(JsonGenerator generator, ResultSet rs) throws IOException, SQLException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong(1));
+        generator.writeStringField("firstName", rs.getString(2));
+        generator.writeStringField("lastName", rs.getString(3));
+        generator.writeStringField("email", rs.getString(4));
+        generator.writeNumberField("version", rs.getLong(5));
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package cool.cfapps.springboottesting.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExportConfiguration {
+
+    // a small pool of its own (not exposed as a DataSource bean): exports never wait for or take connections
+    // from the application pool, and idle connections are closed when no export is running
+    @Bean
+    public EmployeeExporter employeeExporter(DataSourceProperties dataSourceProperties,
+                                             ExportProperties exportProperties, ObjectMapper objectMapper) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("export");
+        dataSource.setMaximumPoolSize(exportProperties.getConcurrency());
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+        return new EmployeeExporter(dataSource, objectMapper.getFactory(), exportProperties.getFetchSize());
+    }
+
+    @Bean
+    public ExportJobService exportJobService(EmployeeExporter employeeExporter, ExportProperties exportProperties) {
+        return new ExportJobService(employeeExporter, exportProperties);
+    }
+}
@@ -0,0 +1,25 @@
+package cool.cfapps.springboottesting.export;
+
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    CSV("csv", new MediaType("text", "csv")),
+    NDJSON("ndjson", MediaType.APPLICATION_NDJSON);
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    ExportFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    // the files are gzip compressed, e.g. employees-<job id>.csv.gz
+    public String fileName(String jobId) {
+        return "employees-" + jobId + "." + extension + ".gz";
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
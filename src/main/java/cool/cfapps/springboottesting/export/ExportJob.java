@@ -0,0 +1,83 @@
+package cool.cfapps.springboottesting.export;
+
+import cool.cfapps.springboottesting.dto.ExportJobDto;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one export, written by the export thread and read by the status requests.
+ */
+class ExportJob {
+
+    enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String tenantId;
+    private final ExportFormat format;
+    private final Path file;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong rows = new AtomicLong();
+    private volatile Status status = Status.QUEUED;
+    private volatile long bytes;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ExportJob(String id, String tenantId, ExportFormat format, Path file) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.format = format;
+        this.file = file;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getTenantId() {
+        return tenantId;
+    }
+
+    ExportFormat getFormat() {
+        return format;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    Status getStatus() {
+        return status;
+    }
+
+    Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    void running() {
+        status = Status.RUNNING;
+    }
+
+    void rowWritten() {
+        rows.incrementAndGet();
+    }
+
+    void completed(long bytes) {
+        this.bytes = bytes;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void failed(Exception e) {
+        this.error = e.getMessage();
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    ExportJobDto toDto() {
+        return new ExportJobDto(id, format, status.name(), rows.get(), bytes, createdAt, finishedAt, error);
+    }
+}
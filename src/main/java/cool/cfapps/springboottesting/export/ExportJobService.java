@@ -0,0 +1,127 @@
+package cool.cfapps.springboottesting.export;
+
+import cool.cfapps.springboottesting.dto.ExportJobDto;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs exports in the background: start one, poll its status, download the file once it is completed.
+ * A file is written under a temporary name and moved into place when it is complete. Jobs and their files
+ * are dropped after the retention period.
+ */
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private final EmployeeExporter exporter;
+    private final ExportProperties properties;
+    private final ExecutorService executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(EmployeeExporter exporter, ExportProperties properties) {
+        this.exporter = exporter;
+        this.properties = properties;
+        this.executor = Executors.newFixedThreadPool(properties.getConcurrency(), threadFactory());
+        try {
+            Files.createDirectories(properties.getDirectory());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create export directory " + properties.getDirectory(), e);
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "employee-export-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public ExportJobDto startExport(ExportFormat format) {
+        removeExpiredJobs();
+        String id = UUID.randomUUID().toString();
+        ExportJob job = new ExportJob(id, TenantContext.current(), format,
+                properties.getDirectory().resolve(format.fileName(id)));
+        jobs.put(id, job);
+        executor.execute(() -> run(job));
+        return job.toDto();
+    }
+
+    public Optional<ExportJobDto> readExport(String id) {
+        return job(id).map(ExportJob::toDto);
+    }
+
+    // the file of a completed export
+    public Optional<Resource> readExportFile(String id) {
+        return job(id)
+                .filter(job -> job.getStatus() == ExportJob.Status.COMPLETED)
+                .map(job -> new FileSystemResource(job.getFile()));
+    }
+
+    // the jobs of the other tenants do not exist for this one
+    private Optional<ExportJob> job(String id) {
+        return Optional.ofNullable(jobs.get(id)).filter(job -> job.getTenantId().equals(TenantContext.current()));
+    }
+
+    private void run(ExportJob job) {
+        job.running();
+        Path partFile = job.getFile().resolveSibling(job.getFile().getFileName() + ".part");
+        long start = System.nanoTime();
+        try {
+            long bytes = exporter.export(job.getFormat(), job.getTenantId(), partFile, job::rowWritten);
+            Files.move(partFile, job.getFile(), StandardCopyOption.ATOMIC_MOVE);
+            job.completed(bytes);
+            ExportJobDto result = job.toDto();
+            log.info("export {} completed: {} rows, {} bytes in {} ms", job.getId(), result.getRows(),
+                    result.getBytes(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("export {} failed", job.getId(), e);
+            deleteQuietly(partFile);
+            job.failed(e);
+        }
+    }
+
+    private void removeExpiredJobs() {
+        Instant expiredBefore = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> {
+            boolean expired = job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiredBefore);
+            if (expired) {
+                deleteQuietly(job.getFile());
+            }
+            return expired;
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("cannot delete export file {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,20 @@
+package cool.cfapps.springboottesting.export;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.export")
+public class ExportProperties {
+
+    // where the finished exports are kept until they expire
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "employee-exports");
+    // exports running at the same time, also the size of the export connection pool
+    private int concurrency = 2;
+    // rows per round trip of the JDBC cursor
+    private int fetchSize = 1000;
+    private Duration retention = Duration.ofHours(24);
+}
@@ -0,0 +1,126 @@
+package cool.cfapps.springboottesting.imports;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 CSV: the first record names the columns (first_name, last_name, email and optionally id and version,
+ * in any order, also accepted in camel case), quoted fields may contain separators, quotes and line breaks.
+ * The header of the export is understood, but its rows carry ids and an import only creates employees: a row with
+ * an id is rejected, drop the id column to import exported employees as new ones.
+ */
+class CsvEmployeeRowReader implements EmployeeRowReader {
+
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int id = -1;
+    private int firstName = -1;
+    private int lastName = -1;
+    private int email = -1;
+    private int columns;
+    private long rowNumber;
+
+    CsvEmployeeRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import without header line");
+        }
+        columns = header.size();
+        for (int i = 0; i < header.size(); i++) {
+            switch (header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT)) {
+                case "id" -> id = i;
+                case "firstname" -> firstName = i;
+                case "lastname" -> lastName = i;
+                case "email" -> email = i;
+                default -> {
+                    // version and unknown columns are ignored
+                }
+            }
+        }
+        if (firstName < 0 || lastName < 0 || email < 0) {
+            throw new IllegalArgumentException("CSV header needs the columns first_name, last_name and email, was "
+                    + header);
+        }
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (columns == 0) {
+            readHeader();
+        }
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isEmpty());
+
+        rowNumber++;
+        if (record.size() != columns) {
+            return ImportRow.malformed(rowNumber, "expected " + columns + " fields, found " + record.size());
+        }
+        long employeeId = 0;
+        if (id >= 0 && !record.get(id).isEmpty()) {
+            try {
+                employeeId = Long.parseLong(record.get(id));
+            } catch (NumberFormatException e) {
+                return ImportRow.malformed(rowNumber, "id is not a number: " + record.get(id));
+            }
+        }
+        return ImportRow.parsed(rowNumber, new EmployeeDto(employeeId, emptyToNull(record.get(firstName)),
+                emptyToNull(record.get(lastName)), emptyToNull(record.get(email)), null));
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    // the fields of the next record, null at the end of the input
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>(Math.max(columns, 5));
+        boolean quoted = false;
+        field.setLength(0);
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
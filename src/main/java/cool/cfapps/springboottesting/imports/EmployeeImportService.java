@@ -0,0 +1,231 @@
+package cool.cfapps.springboottesting.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.dto.ImportResultDto;
+import cool.cfapps.springboottesting.entity.Employee;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.imports.EmployeeRowReader.ImportRow;
+import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk import from a CSV or NDJSON upload.
+ * <p>
+ * The request thread parses the upload row by row and cuts it into chunks of chunkSize input rows (rejected rows
+ * included, so the chunk numbers only depend on the input). The chunks are inserted by a pool of workers, each
+ * chunk in its own transaction with JDBC batching. At most two chunks per worker are in flight: when the workers
+ * fall behind, reading the upload waits, so heap use does not grow with the size of the upload.
+ * <p>
+ * Rows are validated like {@code EmployeeService.createEmployee}: first name, last name and email are required
+ * and the id must not be set. When a chunk fails in the database (e.g. a duplicate email), its rows are inserted
+ * one by one to find the rejected ones. An interrupted import can be sent again with fromChunk set to the
+ * resumeFromChunk of its result.
+ */
+@Service
+public class EmployeeImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader employeeReader;
+    private final ImportProperties properties;
+    private final ExecutorService workers;
+    private final Cache<String, ImportJob> jobs = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(24))
+            .build();
+
+    public EmployeeImportService(EmployeeRepository employeeRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 ImportProperties properties) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.employeeReader = objectMapper.readerFor(EmployeeDto.class);
+        this.properties = properties;
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), threadFactory());
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "employee-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // blocks until the upload has been read and all chunks are committed
+    public ImportResultDto importEmployees(InputStream input, ImportFormat format, int fromChunk, String importId)
+            throws IOException {
+        ImportJob job = new ImportJob(importId == null ? UUID.randomUUID().toString() : importId,
+                fromChunk, properties.getChunkSize(), properties.getMaxReportedErrors());
+        jobs.put(jobKey(job.getId()), job);
+
+        int maxInFlight = properties.getWorkers() * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        boolean completed = false;
+        try {
+            EmployeeRowReader reader = format.reader(
+                    new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024), employeeReader);
+            List<ImportRow> chunk = new ArrayList<>(properties.getChunkSize());
+            int chunkNumber = 0;
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == properties.getChunkSize()) {
+                    submit(job, chunkNumber++, chunk, inFlight);
+                    chunk = new ArrayList<>(properties.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(job, chunkNumber, chunk, inFlight);
+            }
+            completed = true;
+        } finally {
+            // wait for the chunks that are still being committed, also when reading the upload failed
+            inFlight.acquireUninterruptibly(maxInFlight);
+            job.finished(completed);
+            ImportResultDto result = job.toDto();
+            log.info("Import {} {}: {} rows, {} imported, {} rejected in {} ms ({} rows/s), resume from chunk {}",
+                    job.getId(), result.getStatus(), result.getRows(), result.getImported(), result.getRejected(),
+                    result.getElapsedMillis(), Math.round(result.getRowsPerSecond()), result.getResumeFromChunk());
+        }
+        return job.toDto();
+    }
+
+    public Optional<ImportResultDto> readImport(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(jobKey(id))).map(ImportJob::toDto);
+    }
+
+    // import ids may be chosen by the client, every tenant has its own
+    private static String jobKey(String id) {
+        return TenantContext.current() + "/" + id;
+    }
+
+    private void submit(ImportJob job, int chunkNumber, List<ImportRow> chunk, Semaphore inFlight) {
+        job.rowsRead(chunk.size());
+        if (chunkNumber < job.getFromChunk()) {
+            job.skipped(chunk.size());
+            return;
+        }
+        inFlight.acquireUninterruptibly();
+        try {
+            // the chunk is inserted for the tenant of the upload
+            workers.execute(TenantContext.wrap(() -> {
+                try {
+                    importChunk(job, chunkNumber, chunk);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void importChunk(ImportJob job, int chunkNumber, List<ImportRow> chunk) {
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            String error = row.error() != null ? row.error() : validate(row.employee());
+            if (error != null) {
+                job.rejected(row.number(), error);
+            } else {
+                valid.add(row);
+            }
+        }
+
+        try {
+            insert(valid);
+            job.imported(valid.size());
+        } catch (DataAccessException e) {
+            // the whole chunk was rolled back, find the offending rows
+            for (ImportRow row : valid) {
+                try {
+                    insert(List.of(row));
+                    job.imported(1);
+                } catch (DataAccessException rowException) {
+                    job.rejected(row.number(), NestedExceptionUtils.getMostSpecificCause(rowException).getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Import {}: chunk {} failed", job.getId(), chunkNumber, e);
+            for (ImportRow row : valid) {
+                job.rejected(row.number(), e.getMessage());
+            }
+            return;
+        }
+        job.chunkCompleted(chunkNumber);
+    }
+
+    // the checks EmployeeService.createEmployee asserts, reported instead of thrown
+    private static String validate(EmployeeDto employeeDto) {
+        if (employeeDto.getId() != 0) {
+            return "id must not be set";
+        }
+        if (employeeDto.getFirstName() == null || employeeDto.getFirstName().isBlank()) {
+            return "firstName is required";
+        }
+        if (employeeDto.getLastName() == null || employeeDto.getLastName().isBlank()) {
+            return "lastName is required";
+        }
+        if (employeeDto.getEmail() == null || employeeDto.getEmail().isBlank()) {
+            return "email is required";
+        }
+        return null;
+    }
+
+    private void insert(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Employee> employees = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            employees.add(EntityDtoUtil.toEntity(row.employee()));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Employee employee : employeeRepository.saveAll(employees)) {
+                eventPublisher.publishEvent(EmployeeChangedEvent.created(employee.getId()));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,24 @@
+package cool.cfapps.springboottesting.imports;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+
+import java.io.IOException;
+
+// reads one row at a time from the upload, nothing beyond the current row is buffered
+interface EmployeeRowReader {
+
+    // the next row or null at the end of the input
+    ImportRow next() throws IOException;
+
+    // number is the 1-based data row (header not counted), employee is null when the row could not be parsed
+    record ImportRow(long number, EmployeeDto employee, String error) {
+
+        static ImportRow parsed(long number, EmployeeDto employee) {
+            return new ImportRow(number, employee, null);
+        }
+
+        static ImportRow malformed(long number, String error) {
+            return new ImportRow(number, null, error);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package cool.cfapps.springboottesting.imports;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+
+public enum ImportFormat {
+    // header line with first_name, last_name, email (id and version are optional)
+    CSV,
+    // one EmployeeDto JSON object per line
+    NDJSON;
+
+    static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    public static ImportFormat of(MediaType contentType) {
+        if (TEXT_CSV.includes(contentType)) {
+            return CSV;
+        }
+        if (MediaType.APPLICATION_NDJSON.includes(contentType)) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import format " + contentType);
+    }
+
+    EmployeeRowReader reader(BufferedReader reader, ObjectReader employeeReader) {
+        return switch (this) {
+            case CSV -> new CsvEmployeeRowReader(reader);
+            case NDJSON -> new NdjsonEmployeeRowReader(reader, employeeReader);
+        };
+    }
+}
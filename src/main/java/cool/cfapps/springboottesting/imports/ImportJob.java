@@ -0,0 +1,105 @@
+package cool.cfapps.springboottesting.imports;
+
+import cool.cfapps.springboottesting.dto.ImportErrorDto;
+import cool.cfapps.springboottesting.dto.ImportResultDto;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import, updated by the reading request thread and the chunk workers.
+ */
+class ImportJob {
+
+    enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final int fromChunk;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final long start = System.nanoTime();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final BitSet completedChunks = new BitSet();
+    private final List<ImportErrorDto> errors = new ArrayList<>();
+    private volatile Status status = Status.RUNNING;
+    private volatile long elapsedNanos;
+
+    ImportJob(String id, int fromChunk, int chunkSize, int maxReportedErrors) {
+        this.id = id;
+        this.fromChunk = fromChunk;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    int getFromChunk() {
+        return fromChunk;
+    }
+
+    void rowsRead(int count) {
+        rows.addAndGet(count);
+    }
+
+    void skipped(int count) {
+        skipped.addAndGet(count);
+    }
+
+    void imported(int count) {
+        imported.addAndGet(count);
+    }
+
+    void rejected(long row, String message) {
+        rejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportErrorDto(row, message));
+            }
+        }
+    }
+
+    synchronized void chunkCompleted(int chunk) {
+        completedChunks.set(chunk);
+    }
+
+    // the first chunk from fromChunk on that has not been committed yet
+    synchronized int resumeFromChunk() {
+        return completedChunks.nextClearBit(fromChunk);
+    }
+
+    void finished(boolean completed) {
+        elapsedNanos = System.nanoTime() - start;
+        status = completed ? Status.COMPLETED : Status.FAILED;
+    }
+
+    ImportResultDto toDto() {
+        long elapsed = status == Status.RUNNING ? System.nanoTime() - start : elapsedNanos;
+        double seconds = elapsed / 1_000_000_000d;
+        List<ImportErrorDto> reportedErrors;
+        synchronized (errors) {
+            reportedErrors = new ArrayList<>(errors);
+        }
+        return ImportResultDto.builder()
+                .id(id)
+                .status(status.name())
+                .rows(rows.get())
+                .imported(imported.get())
+                .rejected(rejected.get())
+                .skipped(skipped.get())
+                .chunkSize(chunkSize)
+                .resumeFromChunk(resumeFromChunk())
+                .errors(reportedErrors)
+                .elapsedMillis(elapsed / 1_000_000)
+                .rowsPerSecond(seconds > 0 ? imported.get() / seconds : imported.get())
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package cool.cfapps.springboottesting.imports;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.import")
+public class ImportProperties {
+
+    // rows per chunk, every chunk is committed in its own transaction and is the unit for resuming an import
+    private int chunkSize = 500;
+    // chunks committed in parallel
+    private int workers = 4;
+    // rejected rows listed in the result, all rejected rows are counted
+    private int maxReportedErrors = 1000;
+}
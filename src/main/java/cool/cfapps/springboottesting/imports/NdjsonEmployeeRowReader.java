@@ -0,0 +1,39 @@
+package cool.cfapps.springboottesting.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+// parses line by line, so a malformed line rejects that row only
+class NdjsonEmployeeRowReader implements EmployeeRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader employeeReader;
+    private long rowNumber;
+
+    NdjsonEmployeeRowReader(BufferedReader reader, ObjectReader employeeReader) {
+        this.reader = reader;
+        this.employeeReader = employeeReader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        rowNumber++;
+        try {
+            return ImportRow.parsed(rowNumber, employeeReader.readValue(line, EmployeeDto.class));
+        } catch (JsonProcessingException e) {
+            return ImportRow.malformed(rowNumber, "malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+}
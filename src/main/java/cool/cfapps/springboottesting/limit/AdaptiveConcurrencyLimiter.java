@@ -0,0 +1,111 @@
+package cool.cfapps.springboottesting.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the latency of the requests it admits (the gradient algorithm of Netflix'
+ * concurrency-limits): a long-term average of the request time is compared to the latest samples, and while
+ * requests get slower than the average the limit shrinks by the same ratio, as they get faster again it grows
+ * by a small queue allowance per sample. Failed requests (5xx) cut the limit multiplicatively. Requests over
+ * the limit are rejected right away instead of queueing in Tomcat behind a slow database.
+ * <p>
+ * Reads may only use readShare of the limit, the rest is kept for writes.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        READ, WRITE
+    }
+
+    private static final int LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double readShare;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double readShare,
+                                      double tolerance) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.readShare = readShare;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Admits the request if it fits under the limit of its priority, it then has to be released with
+     * {@link #onSuccess}, {@link #onDropped} or {@link #onIgnored}.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = priority == Priority.WRITE ? limit : Math.max(1, (int) (limit * readShare));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(rttNanos, inFlightBefore);
+    }
+
+    public synchronized void onDropped() {
+        inFlight.decrementAndGet();
+        estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF);
+        limit = (int) estimatedLimit;
+    }
+
+    // released without a sample, e.g. long running streams
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long sampleNanos, int inFlightBefore) {
+        double rttNanos = Math.max(1, sampleNanos);
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        }
+        // after a long slow phase the average has drifted up: pull it back so the limit can recover
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // the application did not use the limit, the samples say nothing about a higher one
+        if (inFlightBefore < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,49 @@
+package cool.cfapps.springboottesting.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client (rate per second, up to burst requests at once), kept as the generic cell rate
+ * algorithm: a bucket is a single "theoretical arrival time" updated with compare-and-set, so taking a token
+ * is lock-free. Buckets of clients that stayed away for a while are dropped, a returning client starts full.
+ */
+public class ClientQuotas {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoTime;
+    private final Cache<String, AtomicLong> buckets;
+
+    public ClientQuotas(double ratePerSecond, int burst, LongSupplier nanoTime) {
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstNanos = intervalNanos * Math.max(0, burst - 1);
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(Math.max(intervalNanos * burst, Duration.ofMinutes(1).toNanos())))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * Takes a token of the client, 0 if there was one, else the nanos until the next token.
+     */
+    public long tryAcquire(String clientId) {
+        long now = nanoTime.getAsLong();
+        AtomicLong theoreticalArrival = buckets.get(clientId, key -> new AtomicLong(now));
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = Math.max(arrival, now);
+            if (start - now > burstNanos) {
+                return start - now - burstNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package cool.cfapps.springboottesting.limit;
+
+import cool.cfapps.springboottesting.limit.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+import java.util.Set;
+
+@Configuration
+@ConditionalOnProperty(prefix = "employees.limits", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingConfiguration {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(LoadSheddingProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getReadShare(), properties.getRttTolerance());
+    }
+
+    @Bean
+    public LoadSheddingFilter loadSheddingFilter(AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+                                                 LoadSheddingProperties properties) {
+        ClientQuotas clientQuotas = properties.getClientRate() > 0
+                ? new ClientQuotas(properties.getClientRate(), properties.getClientBurst(), System::nanoTime)
+                : null;
+        return new LoadSheddingFilter(adaptiveConcurrencyLimiter, clientQuotas, properties.getClientHeader(),
+                Set.copyOf(properties.getTrustedProxies()));
+    }
+
+    @Bean
+    public MeterBinder loadSheddingMetrics(AdaptiveConcurrencyLimiter limiter, LoadSheddingFilter filter) {
+        return registry -> {
+            Gauge.builder("employees.limiter.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Current adaptive concurrency limit of the employee API")
+                    .register(registry);
+            Gauge.builder("employees.limiter.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .description("Employee API requests in progress")
+                    .register(registry);
+            for (Priority priority : Priority.values()) {
+                for (LoadSheddingFilter.Outcome outcome : LoadSheddingFilter.Outcome.values()) {
+                    FunctionCounter.builder("employees.limiter.requests", filter, f -> f.count(priority, outcome))
+                            .description("Employee API requests by priority and limiter outcome")
+                            .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                            .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
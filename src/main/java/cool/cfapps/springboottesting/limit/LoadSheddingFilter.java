@@ -0,0 +1,165 @@
+package cool.cfapps.springboottesting.limit;
+
+import cool.cfapps.springboottesting.limit.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * First filter of the employee API: a client over its quota gets 429, a request over the concurrency limit
+ * 503, both with Retry-After and before any other work is done. GET and HEAD are reads, everything else is a
+ * write. The request time of admitted requests feeds the limiter; async requests (the streaming endpoint) run
+ * for as long as the client reads, they hold their slot but give no sample.
+ * <p>
+ * The quota of a client is keyed on the authenticated user, else on the remote address. Anybody can send the
+ * client header, so it only names the client of requests coming from a trusted proxy.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter implements Ordered {
+
+    public enum Outcome {
+        ADMITTED, SHED, THROTTLED
+    }
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    @Nullable
+    private final ClientQuotas clientQuotas;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final LongAdder[][] counts = new LongAdder[Priority.values().length][Outcome.values().length];
+
+    public LoadSheddingFilter(AdaptiveConcurrencyLimiter limiter, @Nullable ClientQuotas clientQuotas,
+                              String clientHeader, Set<String> trustedProxies) {
+        this.limiter = limiter;
+        this.clientQuotas = clientQuotas;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = trustedProxies;
+        for (LongAdder[] priorityCounts : counts) {
+            for (int i = 0; i < priorityCounts.length; i++) {
+                priorityCounts[i] = new LongAdder();
+            }
+        }
+    }
+
+    // ahead of the TenantFilter, a shed request does not queue for its tenant
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Priority priority = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                ? Priority.READ : Priority.WRITE;
+        if (clientQuotas != null) {
+            long waitNanos = clientQuotas.tryAcquire(clientOf(request));
+            if (waitNanos > 0) {
+                increment(priority, Outcome.THROTTLED);
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+                return;
+            }
+        }
+        if (!limiter.tryAcquire(priority)) {
+            increment(priority, Outcome.SHED);
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return;
+        }
+        increment(priority, Outcome.ADMITTED);
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new IgnoringAsyncListener(limiter));
+            } else if (failed || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                limiter.onDropped();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+
+    public long count(Priority priority, Outcome outcome) {
+        return counts[priority.ordinal()][outcome.ordinal()].sum();
+    }
+
+    private void increment(Priority priority, Outcome outcome) {
+        counts[priority.ordinal()][outcome.ordinal()].increment();
+    }
+
+    // prefixed, so a client header cannot name the bucket of a user or an address
+    private String clientOf(HttpServletRequest request) {
+        Principal user = request.getUserPrincipal();
+        if (user != null) {
+            return "user:" + user.getName();
+        }
+        String remoteAddress = request.getRemoteAddr();
+        String clientId = trustedProxies.contains(remoteAddress) ? request.getHeader(clientHeader) : null;
+        return clientId != null ? "client:" + clientId : "address:" + remoteAddress;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds)
+            throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.sendError(status.value());
+    }
+
+    private static final class IgnoringAsyncListener implements AsyncListener {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private boolean released;
+
+        private IgnoringAsyncListener(AdaptiveConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                limiter.onIgnored();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
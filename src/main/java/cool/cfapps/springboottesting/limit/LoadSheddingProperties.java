@@ -0,0 +1,30 @@
+package cool.cfapps.springboottesting.limit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "employees.limits")
+public class LoadSheddingProperties {
+
+    // adaptive concurrency limit of the employee API, requests over it get 503
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    // share of the limit reads may use, the rest is kept for writes
+    private double readShare = 0.9;
+    // how much slower than the long-term average requests may get before the limit shrinks
+    private double rttTolerance = 1.5;
+
+    // token bucket per client, requests over it get 429; 0 = no quotas. The client is the authenticated user, else
+    // the client header when the request comes from one of the trusted proxies, else the remote address
+    private String clientHeader = "X-Client-Id";
+    // remote addresses allowed to name the client in the client header, e.g. the load balancer
+    private List<String> trustedProxies = new ArrayList<>();
+    private double clientRate = 0;
+    private int clientBurst = 100;
+}
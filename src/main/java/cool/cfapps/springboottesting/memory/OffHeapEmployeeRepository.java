@@ -0,0 +1,223 @@
+package cool.cfapps.springboottesting.memory;
+
+import cool.cfapps.springboottesting.dto.EmployeeChangeDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.outbox.EmployeeChangeLog;
+import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.routing.ReadWriteRouting;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The employees table of all tenants in an {@link OffHeapEmployeeStore}, with the lookups of EmployeeRepository
+ * that EmployeeService uses for the current tenant.
+ * <p>
+ * Loaded in the background once the application is ready: the position of the change feed is taken first, then
+ * all employees are read with one streaming query, then the changes relayed since that position are applied.
+ * Afterwards the changes after the last applied one are read every refreshInterval, so the store follows the
+ * writes of every instance with a delay of about relayInterval + refreshInterval. A change is applied as the row
+ * the change feed joins to it, the current one, so applying a change twice or late does no harm. The writes of
+ * this instance are also applied right after their commit (the ids are reloaded like in EmployeeSearchService),
+ * so a client reads its own writes from the instance it wrote to. A position the feed has already purged (an
+ * outage longer than the retention) loads everything again.
+ */
+public class OffHeapEmployeeRepository implements SchedulingConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapEmployeeRepository.class);
+
+    // native: all tenants
+    private static final String SELECT_EMPLOYEES =
+            "SELECT id, first_name, last_name, email, version, tenant_id FROM employees";
+    private static final String COUNT_EMPLOYEES = "SELECT COUNT(*) FROM employees";
+
+    private final JdbcTemplate loadTemplate;
+    private final EmployeeChangeLog changeLog;
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate reloadTransaction;
+    private final OffHeapStoreProperties properties;
+    // null until the first load is complete
+    private volatile OffHeapEmployeeStore store;
+    // seq of the last applied change, guarded by this
+    private long position;
+
+    public OffHeapEmployeeRepository(JdbcTemplate jdbcTemplate, EmployeeChangeLog changeLog,
+                                     EmployeeRepository employeeRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     OffHeapStoreProperties properties) {
+        this.loadTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.loadTemplate.setFetchSize(properties.getFetchSize());
+        this.changeLog = changeLog;
+        this.employeeRepository = employeeRepository;
+        // after the commit the resources of the finished transaction are still bound, the reload needs its own
+        this.reloadTransaction = new TransactionTemplate(transactionManager);
+        this.reloadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reloadTransaction.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::refresh, properties.getRefreshInterval());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread thread = new Thread(this::load, "employee-off-heap-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isLoaded() {
+        return store != null;
+    }
+
+    public Optional<EmployeeDto> findDtoById(long id) {
+        return loaded().findById(TenantContext.current(), id);
+    }
+
+    public Optional<EmployeeDto> findDtoByEmail(String email) {
+        return loaded().findByEmail(TenantContext.current(), email);
+    }
+
+    public Optional<EmployeeDto> findDtoByName(String firstName, String lastName) {
+        return loaded().findByName(TenantContext.current(), firstName, lastName);
+    }
+
+    public int size() {
+        OffHeapEmployeeStore current = store;
+        return current == null ? 0 : current.size();
+    }
+
+    public long offHeapBytes() {
+        OffHeapEmployeeStore current = store;
+        return current == null ? 0 : current.offHeapBytes();
+    }
+
+    private OffHeapEmployeeStore loaded() {
+        OffHeapEmployeeStore current = store;
+        if (current == null) {
+            throw new IllegalStateException("Off-heap employee store not loaded yet");
+        }
+        return current;
+    }
+
+    // a new store, swapped in once it has caught up with the change feed; lookups use the old one until then
+    synchronized void load() {
+        long start = System.nanoTime();
+        long seq = changeLog.lastSeq();
+        Integer count = loadTemplate.queryForObject(COUNT_EMPLOYEES, Integer.class);
+        OffHeapEmployeeStore loaded = new OffHeapEmployeeStore((int) properties.getChunkSize().toBytes(),
+                count == null ? 0 : count);
+        loadTemplate.query(SELECT_EMPLOYEES, rs -> {
+            loaded.put(rs.getString(6), new EmployeeDto(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    rs.getString(4), rs.getObject(5, Long.class)));
+        });
+        position = seq;
+        if (!applyChanges(loaded)) {
+            throw new IllegalStateException("Employee changes purged while loading the off-heap store");
+        }
+        store = loaded;
+        log.info("Off-heap employee store loaded: {} employees, {} MB in {} ms", loaded.size(),
+                loaded.offHeapBytes() / (1024 * 1024), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // the scheduled refresh, skipped until the first load is complete
+    public void refresh() {
+        if (store == null) {
+            return;
+        }
+        synchronized (this) {
+            if (!applyChanges(store)) {
+                log.warn("Employee changes after seq {} purged, loading the off-heap store again", position);
+                load();
+            }
+        }
+    }
+
+    // false if the changes after position have been purged
+    private boolean applyChanges(OffHeapEmployeeStore target) {
+        List<EmployeeChangeDto> changes;
+        do {
+            changes = changeLog.changesSince(position, properties.getRefreshBatchSize());
+            // checked after reading the changes: a purge running in between is still detected
+            if (changeLog.isPurged(position)) {
+                return false;
+            }
+            for (EmployeeChangeDto change : changes) {
+                if (change.getEmployee() == null) {
+                    target.remove(change.getEmployeeId());
+                } else {
+                    target.put(change.getTenantId(), change.getEmployee());
+                }
+                position = change.getSeq();
+            }
+        } while (changes.size() == properties.getRefreshBatchSize());
+        return true;
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (store == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload(List.of(event.id()));
+            return;
+        }
+        pendingIds().add(event.id());
+    }
+
+    // the ids changed in the current transaction, reloaded once it has committed
+    private Set<Long> pendingIds() {
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> ids = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OffHeapEmployeeRepository.this);
+                    if (status == STATUS_COMMITTED) {
+                        reload(ids);
+                    }
+                }
+            });
+            pending = ids;
+        }
+        return pending;
+    }
+
+    // runs for the current tenant, on the writing thread after the commit
+    private void reload(Collection<Long> ids) {
+        OffHeapEmployeeStore current = store;
+        Set<Long> missing = new HashSet<>(ids);
+        // from the primary, a replica may not have the change yet
+        List<EmployeeDto> employees = ReadWriteRouting.onPrimary(
+                () -> reloadTransaction.execute(status -> employeeRepository.findDtosByIdIn(missing)));
+        for (EmployeeDto employeeDto : employees == null ? List.<EmployeeDto>of() : employees) {
+            current.put(TenantContext.current(), employeeDto);
+            missing.remove(employeeDto.getId());
+        }
+        // deleted in the meantime
+        missing.forEach(current::remove);
+    }
+}
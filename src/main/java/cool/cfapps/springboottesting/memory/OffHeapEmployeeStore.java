@@ -0,0 +1,567 @@
+package cool.cfapps.springboottesting.memory;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Employees outside the Java heap, looked up by id, by email and by first and last name.
+ * <p>
+ * Every employee is one record in a direct buffer: a 26 byte header (id, version, tenant, string lengths) followed
+ * by first name, last name and email as UTF-8. The records are appended to chunks of chunkSize bytes; an update
+ * appends a new record and the old one becomes garbage, which is copied away once it is more than half of all
+ * record bytes. The indexes are open addressing hash tables with linear probing, also in direct buffers:
+ * <ul>
+ *     <li>id: id -> record address</li>
+ *     <li>email and (first name, last name): hash -> record address, the strings are compared in the record</li>
+ * </ul>
+ * The heap holds a few dozen objects whatever the number of employees, so the garbage collector has nothing to
+ * trace; only the returned EmployeeDtos are allocated per lookup. 10 million employees take about 1.3 GB (records
+ * of ~56 bytes plus three tables of 16 bytes per slot at a load factor of at most 0.75).
+ * <p>
+ * Writes are serialized. Lookups do not lock: they read optimistically and start over under the read lock when a
+ * write happened in between (see {@link StampedLock}).
+ */
+public class OffHeapEmployeeStore {
+
+    // record header
+    private static final int ID = 0;
+    private static final int VERSION = 8;
+    private static final int TENANT = 16;
+    private static final int FIRST_NAME_LENGTH = 20;
+    private static final int LAST_NAME_LENGTH = 22;
+    private static final int EMAIL_LENGTH = 24;
+    private static final int HEADER = 26;
+    private static final long NO_VERSION = Long.MIN_VALUE;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    static final int MIN_CHUNK_SIZE = HEADER + 3 * MAX_STRING_BYTES;
+
+    // a slot is two longs, a direct buffer holds at most 2 GB
+    private static final int SLOT = 16;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private final int chunkSize;
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Integer> tenants = new ConcurrentHashMap<>();
+
+    // guarded by lock
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private int writeOffset;
+    private long recordBytes;
+    private long garbageBytes;
+    private Table ids;
+    private Table emails;
+    private Table names;
+
+    public OffHeapEmployeeStore(int chunkSize, int expectedEmployees) {
+        if (chunkSize < MIN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be at least " + MIN_CHUNK_SIZE + " bytes");
+        }
+        this.chunkSize = chunkSize;
+        int capacity = capacityFor(expectedEmployees);
+        this.ids = new Table(capacity, false);
+        this.emails = new Table(capacity, true);
+        this.names = new Table(capacity, true);
+    }
+
+    // adds or replaces the employee; a version older than the stored one is ignored (returns false)
+    public boolean put(String tenantId, EmployeeDto employeeDto) {
+        long id = employeeDto.getId();
+        if (id == 0) {
+            throw new IllegalArgumentException("Employee without id");
+        }
+        byte[] firstName = utf8(employeeDto.getFirstName());
+        byte[] lastName = utf8(employeeDto.getLastName());
+        byte[] email = utf8(employeeDto.getEmail());
+        long version = employeeDto.getVersion() == null ? NO_VERSION : employeeDto.getVersion();
+        long stamp = lock.writeLock();
+        try {
+            int tenant = tenants.computeIfAbsent(tenantId, key -> tenants.size());
+            int slot = ids.find(id);
+            if (slot >= 0) {
+                long old = ids.second(slot);
+                long oldVersion = chunk(old).getLong(offset(old) + VERSION);
+                if (version != NO_VERSION && oldVersion != NO_VERSION && version < oldVersion) {
+                    return false;
+                }
+                removeFromSecondary(old);
+                garbageBytes += recordSize(old);
+                long address = append(id, version, tenant, firstName, lastName, email);
+                ids.setSecond(slot, address);
+                addToSecondary(address);
+                compactIfWasteful();
+                return true;
+            }
+            growIfFull();
+            long address = append(id, version, tenant, firstName, lastName, email);
+            ids.insert(id, address, mix(id));
+            addToSecondary(address);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // true if the employee was there
+    public boolean remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = ids.find(id);
+            if (slot < 0) {
+                return false;
+            }
+            long address = ids.second(slot);
+            removeFromSecondary(address);
+            ids.removeAt(slot);
+            garbageBytes += recordSize(address);
+            compactIfWasteful();
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Optional<EmployeeDto> findById(String tenantId, long id) {
+        Integer tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(read(() -> {
+            Table table = ids;
+            int slot = table.find(id);
+            if (slot < 0) {
+                return null;
+            }
+            long address = table.second(slot);
+            return tenantOf(address) == tenant ? decode(address) : null;
+        }));
+    }
+
+    // the email is unique per tenant, see ux_employees_tenant_id_email
+    public Optional<EmployeeDto> findByEmail(String tenantId, String email) {
+        Integer tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            return Optional.empty();
+        }
+        byte[] bytes = utf8(email);
+        long hash = emailHash(tenant, bytes);
+        return Optional.ofNullable(read(() -> {
+            Table table = emails;
+            for (int slot = table.home(hash), probes = 0; probes <= table.mask; slot = table.next(slot), probes++) {
+                long entry = table.first(slot);
+                if (entry == 0) {
+                    return null;
+                }
+                long address = entry - 1;
+                if (table.second(slot) == hash && tenantOf(address) == tenant) {
+                    ByteBuffer chunk = chunk(address);
+                    int offset = offset(address);
+                    if (equals(chunk, emailOffset(chunk, offset), chunk.getChar(offset + EMAIL_LENGTH), bytes)) {
+                        return decode(address);
+                    }
+                }
+            }
+            return null;
+        }));
+    }
+
+    // names are not unique: the employee with the lowest id of that name, a name shared by n employees costs n probes
+    public Optional<EmployeeDto> findByName(String tenantId, String firstName, String lastName) {
+        Integer tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            return Optional.empty();
+        }
+        byte[] first = utf8(firstName);
+        byte[] last = utf8(lastName);
+        long hash = nameHash(tenant, first, last);
+        return Optional.ofNullable(read(() -> {
+            Table table = names;
+            long found = -1;
+            for (int slot = table.home(hash), probes = 0; probes <= table.mask; slot = table.next(slot), probes++) {
+                long entry = table.first(slot);
+                if (entry == 0) {
+                    break;
+                }
+                long address = entry - 1;
+                if (table.second(slot) != hash || tenantOf(address) != tenant) {
+                    continue;
+                }
+                ByteBuffer chunk = chunk(address);
+                int offset = offset(address);
+                int firstNameLength = chunk.getChar(offset + FIRST_NAME_LENGTH);
+                if (equals(chunk, offset + HEADER, firstNameLength, first)
+                        && equals(chunk, offset + HEADER + firstNameLength, chunk.getChar(offset + LAST_NAME_LENGTH),
+                        last)
+                        && (found < 0 || idOf(address) < idOf(found))) {
+                    found = address;
+                }
+            }
+            return found < 0 ? null : decode(found);
+        }));
+    }
+
+    public int size() {
+        return read(() -> ids.size);
+    }
+
+    // records and tables
+    public long offHeapBytes() {
+        return read(() -> (long) chunks.length * chunkSize + ids.bytes() + emails.bytes() + names.bytes());
+    }
+
+    // optimistic first: a read overlapping a write may see a half written table and even fail, it is repeated
+    // under the read lock then
+    private <T> T read(Supplier<T> read) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = read.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long append(long id, long version, int tenant, byte[] firstName, byte[] lastName, byte[] email) {
+        int length = HEADER + firstName.length + lastName.length + email.length;
+        if (chunks.length == 0 || writeOffset + length > chunkSize) {
+            chunks = Arrays.copyOf(chunks, chunks.length + 1);
+            chunks[chunks.length - 1] = ByteBuffer.allocateDirect(chunkSize).order(ByteOrder.nativeOrder());
+            writeOffset = 0;
+        }
+        ByteBuffer chunk = chunks[chunks.length - 1];
+        int offset = writeOffset;
+        chunk.putLong(offset + ID, id);
+        chunk.putLong(offset + VERSION, version);
+        chunk.putInt(offset + TENANT, tenant);
+        chunk.putChar(offset + FIRST_NAME_LENGTH, (char) firstName.length);
+        chunk.putChar(offset + LAST_NAME_LENGTH, (char) lastName.length);
+        chunk.putChar(offset + EMAIL_LENGTH, (char) email.length);
+        chunk.put(offset + HEADER, firstName);
+        chunk.put(offset + HEADER + firstName.length, lastName);
+        chunk.put(offset + HEADER + firstName.length + lastName.length, email);
+        writeOffset += length;
+        recordBytes += length;
+        return (long) (chunks.length - 1) << 32 | offset;
+    }
+
+    private void addToSecondary(long address) {
+        long emailHash = emailHash(address);
+        emails.insert(address + 1, emailHash, emailHash);
+        long nameHash = nameHash(address);
+        names.insert(address + 1, nameHash, nameHash);
+    }
+
+    private void removeFromSecondary(long address) {
+        emails.removeAt(emails.findEntry(address + 1, emailHash(address)));
+        names.removeAt(names.findEntry(address + 1, nameHash(address)));
+    }
+
+    private void growIfFull() {
+        if (ids.size + 1 <= ids.capacity() / 4 * 3) {
+            return;
+        }
+        if (ids.capacity() == MAX_CAPACITY) {
+            throw new IllegalStateException("More than " + MAX_CAPACITY / 4 * 3 + " employees");
+        }
+        ids = ids.resize(ids.capacity() * 2);
+        emails = emails.resize(ids.capacity());
+        names = names.resize(ids.capacity());
+    }
+
+    // copies the live records to new chunks and rebuilds the indexes; readers wait for it
+    private void compactIfWasteful() {
+        if (garbageBytes < chunkSize || garbageBytes * 2 < recordBytes) {
+            return;
+        }
+        ByteBuffer[] oldChunks = chunks;
+        Table oldIds = ids;
+        chunks = new ByteBuffer[0];
+        writeOffset = 0;
+        recordBytes = 0;
+        garbageBytes = 0;
+        ids = new Table(oldIds.capacity(), false);
+        emails = new Table(oldIds.capacity(), true);
+        names = new Table(oldIds.capacity(), true);
+        for (int slot = 0; slot < oldIds.capacity(); slot++) {
+            long id = oldIds.first(slot);
+            if (id == 0) {
+                continue;
+            }
+            long oldAddress = oldIds.second(slot);
+            ByteBuffer chunk = oldChunks[(int) (oldAddress >>> 32)];
+            int offset = offset(oldAddress);
+            long address = append(id, chunk.getLong(offset + VERSION), chunk.getInt(offset + TENANT),
+                    bytes(chunk, offset + HEADER, chunk.getChar(offset + FIRST_NAME_LENGTH)),
+                    bytes(chunk, offset + HEADER + chunk.getChar(offset + FIRST_NAME_LENGTH),
+                            chunk.getChar(offset + LAST_NAME_LENGTH)),
+                    bytes(chunk, emailOffset(chunk, offset), chunk.getChar(offset + EMAIL_LENGTH)));
+            ids.insert(id, address, mix(id));
+            addToSecondary(address);
+        }
+    }
+
+    private ByteBuffer chunk(long address) {
+        return chunks[(int) (address >>> 32)];
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private long idOf(long address) {
+        return chunk(address).getLong(offset(address) + ID);
+    }
+
+    private int tenantOf(long address) {
+        return chunk(address).getInt(offset(address) + TENANT);
+    }
+
+    private int recordSize(long address) {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        return HEADER + chunk.getChar(offset + FIRST_NAME_LENGTH) + chunk.getChar(offset + LAST_NAME_LENGTH)
+                + chunk.getChar(offset + EMAIL_LENGTH);
+    }
+
+    private static int emailOffset(ByteBuffer chunk, int offset) {
+        return offset + HEADER + chunk.getChar(offset + FIRST_NAME_LENGTH) + chunk.getChar(offset + LAST_NAME_LENGTH);
+    }
+
+    private EmployeeDto decode(long address) {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        int firstNameLength = chunk.getChar(offset + FIRST_NAME_LENGTH);
+        int lastNameLength = chunk.getChar(offset + LAST_NAME_LENGTH);
+        int at = offset + HEADER;
+        String firstName = new String(bytes(chunk, at, firstNameLength), StandardCharsets.UTF_8);
+        String lastName = new String(bytes(chunk, at + firstNameLength, lastNameLength), StandardCharsets.UTF_8);
+        String email = new String(bytes(chunk, at + firstNameLength + lastNameLength,
+                chunk.getChar(offset + EMAIL_LENGTH)), StandardCharsets.UTF_8);
+        long version = chunk.getLong(offset + VERSION);
+        return new EmployeeDto(chunk.getLong(offset + ID), firstName, lastName, email,
+                version == NO_VERSION ? null : version);
+    }
+
+    // the string of length bytes at at is expected
+    private static boolean equals(ByteBuffer chunk, int at, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chunk.get(at + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes(ByteBuffer chunk, int at, int length) {
+        byte[] bytes = new byte[length];
+        chunk.get(at, bytes);
+        return bytes;
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("More than " + MAX_STRING_BYTES + " bytes: " + value);
+        }
+        return bytes;
+    }
+
+    // the hashes of the secondary indexes, over the UTF-8 bytes: the same for a query and for a stored record
+    private static long emailHash(int tenant, byte[] email) {
+        return mix(hash(tenant, email, 0, email.length));
+    }
+
+    private long emailHash(long address) {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        return mix(hash(chunk.getInt(offset + TENANT), chunk, emailOffset(chunk, offset),
+                chunk.getChar(offset + EMAIL_LENGTH)));
+    }
+
+    private static long nameHash(int tenant, byte[] firstName, byte[] lastName) {
+        long hash = hash(tenant, firstName, 0, firstName.length);
+        return mix(hash(31 * hash + firstName.length, lastName, 0, lastName.length));
+    }
+
+    private long nameHash(long address) {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        int firstNameLength = chunk.getChar(offset + FIRST_NAME_LENGTH);
+        long hash = hash(chunk.getInt(offset + TENANT), chunk, offset + HEADER, firstNameLength);
+        return mix(hash(31 * hash + firstNameLength, chunk, offset + HEADER + firstNameLength,
+                chunk.getChar(offset + LAST_NAME_LENGTH)));
+    }
+
+    private static long hash(long seed, byte[] bytes, int from, int length) {
+        long hash = seed;
+        for (int i = from; i < from + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    private static long hash(long seed, ByteBuffer chunk, int from, int length) {
+        long hash = seed;
+        for (int i = from; i < from + length; i++) {
+            hash = 31 * hash + chunk.get(i);
+        }
+        return hash;
+    }
+
+    // murmur3 finalizer, spreads sequential ids over the table
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int capacityFor(int employees) {
+        long slots = Math.max(MIN_CAPACITY, (long) employees * 4 / 3 + 1);
+        if (slots > MAX_CAPACITY) {
+            throw new IllegalArgumentException("More than " + MAX_CAPACITY / 4 * 3 + " employees");
+        }
+        return Integer.highestOneBit((int) slots - 1) << 1;
+    }
+
+    /**
+     * Linear probing over slots of two longs in a direct buffer, (0, x) is an empty slot. The id table holds
+     * (id, address) and places an entry by the mixed id, the secondary tables hold (address + 1, hash) and place
+     * it by the hash. Removal shifts the following entries back instead of leaving tombstones, so lookups never
+     * probe past removed entries.
+     */
+    private static final class Table {
+
+        final ByteBuffer slots;
+        final int mask;
+        final boolean hashInSecond;
+        int size;
+
+        Table(int capacity, boolean hashInSecond) {
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT).order(ByteOrder.nativeOrder());
+            this.mask = capacity - 1;
+            this.hashInSecond = hashInSecond;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        long bytes() {
+            return (long) capacity() * SLOT;
+        }
+
+        long first(int slot) {
+            return slots.getLong(slot * SLOT);
+        }
+
+        long second(int slot) {
+            return slots.getLong(slot * SLOT + 8);
+        }
+
+        void setSecond(int slot, long value) {
+            slots.putLong(slot * SLOT + 8, value);
+        }
+
+        int home(long hash) {
+            return (int) hash & mask;
+        }
+
+        int next(int slot) {
+            return (slot + 1) & mask;
+        }
+
+        private int homeOf(int slot) {
+            return home(hashInSecond ? second(slot) : mix(first(slot)));
+        }
+
+        // slot of the id, -1 if absent (id table)
+        int find(long id) {
+            for (int slot = home(mix(id)), probes = 0; probes <= mask; slot = next(slot), probes++) {
+                long key = first(slot);
+                if (key == id) {
+                    return slot;
+                }
+                if (key == 0) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        // slot of the entry, which has to be there (secondary tables)
+        int findEntry(long first, long hash) {
+            for (int slot = home(hash), probes = 0; probes <= mask; slot = next(slot), probes++) {
+                if (first(slot) == first) {
+                    return slot;
+                }
+            }
+            throw new IllegalStateException("Index entry missing");
+        }
+
+        void insert(long first, long second, long hash) {
+            int slot = home(hash);
+            while (first(slot) != 0) {
+                slot = next(slot);
+            }
+            slots.putLong(slot * SLOT + 8, second);
+            slots.putLong(slot * SLOT, first);
+            size++;
+        }
+
+        void removeAt(int slot) {
+            int free = slot;
+            for (int next = next(free); first(next) != 0; next = next(next)) {
+                int home = homeOf(next);
+                // the entry stays if its home lies cyclically in (free, next]
+                boolean stays = free <= next ? free < home && home <= next : free < home || home <= next;
+                if (!stays) {
+                    slots.putLong(free * SLOT, first(next));
+                    slots.putLong(free * SLOT + 8, second(next));
+                    free = next;
+                }
+            }
+            slots.putLong(free * SLOT, 0);
+            slots.putLong(free * SLOT + 8, 0);
+            size--;
+        }
+
+        Table resize(int capacity) {
+            Table resized = new Table(capacity, hashInSecond);
+            for (int slot = 0; slot <= mask; slot++) {
+                long first = first(slot);
+                if (first != 0) {
+                    long second = second(slot);
+                    resized.insert(first, second, hashInSecond ? second : mix(first));
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package cool.cfapps.springboottesting.memory;
+
+import cool.cfapps.springboottesting.outbox.EmployeeChangeLog;
+import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.shard.ShardProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Opt-in (employees.memory.enabled=true): EmployeeService reads employees by id and email from an
+ * {@link OffHeapEmployeeRepository} instead of the database.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "employees.memory", name = "enabled", havingValue = "true")
+public class OffHeapStoreConfiguration {
+
+    // the store follows the change log of spring.datasource, which never sees the employees on the shards
+    public OffHeapStoreConfiguration(ShardProperties shardProperties) {
+        if (shardProperties.isEnabled()) {
+            throw new IllegalStateException(
+                    "employees.memory.enabled cannot be combined with employees.shards.enabled");
+        }
+    }
+
+    @Bean
+    public OffHeapEmployeeRepository offHeapEmployeeRepository(JdbcTemplate jdbcTemplate,
+                                                               EmployeeChangeLog changeLog,
+                                                               EmployeeRepository employeeRepository,
+                                                               PlatformTransactionManager transactionManager,
+                                                               OffHeapStoreProperties properties) {
+        return new OffHeapEmployeeRepository(jdbcTemplate, changeLog, employeeRepository, transactionManager,
+                properties);
+    }
+
+    @Bean
+    public MeterBinder offHeapStoreMetrics(OffHeapEmployeeRepository repository) {
+        return registry -> {
+            Gauge.builder("employees.memory.employees", repository, OffHeapEmployeeRepository::size)
+                    .description("Employees in the off-heap store")
+                    .register(registry);
+            Gauge.builder("employees.memory.bytes", repository, OffHeapEmployeeRepository::offHeapBytes)
+                    .description("Direct memory of the off-heap store: records and indexes")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package cool.cfapps.springboottesting.memory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.memory")
+public class OffHeapStoreProperties {
+
+    // reads by id and email from the off-heap store once it is loaded
+    private boolean enabled = false;
+    // the records are allocated in chunks of this size
+    private DataSize chunkSize = DataSize.ofMegabytes(64);
+    // pause between two reads of the change feed
+    private Duration refreshInterval = Duration.ofSeconds(1);
+    // changes per query of the change feed
+    private int refreshBatchSize = 1000;
+    // rows per round trip of the initial load
+    private int fetchSize = 1000;
+}
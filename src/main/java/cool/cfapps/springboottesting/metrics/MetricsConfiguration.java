@@ -0,0 +1,49 @@
+package cool.cfapps.springboottesting.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import cool.cfapps.springboottesting.cache.EmployeeCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.Map;
+
+/**
+ * Application metrics on top of what Spring Boot binds by itself (http.server.requests per endpoint,
+ * spring.data.repository.invocations per repository method, HikariCP pool and Hibernate statistics):
+ * row counts per repository method and the employee cache statistics.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    // static: post processors are created before the other beans, the registry is resolved lazily
+    @Bean
+    public static BeanPostProcessor repositoryRowCountPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+                            repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                                    proxyFactory.addAdvice(new RepositoryRowCountInterceptor(
+                                            meterRegistry.getObject(), repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder employeeCacheMetrics(EmployeeCache employeeCache) {
+        return registry -> {
+            for (Map.Entry<String, Cache<?, ?>> cache : employeeCache.caches().entrySet()) {
+                CaffeineCacheMetrics.monitor(registry, cache.getValue(), cache.getKey());
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package cool.cfapps.springboottesting.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Records the number of rows a repository method returned (or changed, for {@link Modifying} queries) in the
+ * employees.repository.rows summary. Streams, reactive results, counts and exists checks are not recorded.
+ * The summaries are looked up once per method, the hot path is a map lookup and a record call.
+ */
+class RepositoryRowCountInterceptor implements MethodInterceptor {
+
+    static final String METRIC_NAME = "employees.repository.rows";
+
+    private final MeterRegistry meterRegistry;
+    private final String repository;
+    private final Map<Method, Optional<DistributionSummary>> summaries = new ConcurrentHashMap<>();
+
+    RepositoryRowCountInterceptor(MeterRegistry meterRegistry, Class<?> repositoryInterface) {
+        this.meterRegistry = meterRegistry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        summaries.computeIfAbsent(invocation.getMethod(), this::summary)
+                .ifPresent(summary -> summary.record(rows(result)));
+        return result;
+    }
+
+    private Optional<DistributionSummary> summary(Method method) {
+        Class<?> returnType = method.getReturnType();
+        boolean modifying = method.isAnnotationPresent(Modifying.class);
+        if (returnType == void.class || Stream.class.isAssignableFrom(returnType)
+                || Publisher.class.isAssignableFrom(returnType)
+                || returnType == boolean.class || returnType == Boolean.class
+                || (!modifying && (returnType.isPrimitive() || Number.class.isAssignableFrom(returnType)))) {
+            return Optional.empty();
+        }
+        return Optional.of(DistributionSummary.builder(METRIC_NAME)
+                .description("Rows returned or changed by a repository method")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .register(meterRegistry));
+    }
+
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        if (result instanceof Iterable<?> iterable) {
+            long rows = 0;
+            for (Object ignored : iterable) {
+                rows++;
+            }
+            return rows;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,130 @@
+package cool.cfapps.springboottesting.outbox;
+
+import cool.cfapps.springboottesting.dto.EmployeeChangeDto;
+import cool.cfapps.springboottesting.dto.EmployeeChangesDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.shard.ConditionalOnUnsharded;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The transactional outbox of the employee changes (table employee_changes).
+ * <p>
+ * Every {@link EmployeeChangedEvent} is appended in the transaction that made the change: the records of one
+ * transaction are collected and inserted as a single JDBC batch just before it commits, so they are committed
+ * (or rolled back) together with the change itself. {@link EmployeeChangeRelay} then gives them their seq, the
+ * position consumers of {@code GET /api/v1/employees/changes?since=<seq>} follow.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnUnsharded
+public class EmployeeChangeLog {
+
+    private static final String INSERT_CHANGE =
+            "INSERT INTO employee_changes (employee_id, change_type, changed_at, tenant_id) VALUES (?, ?, ?, ?)";
+    // the employee is joined when the change is read, so the outbox row stays small on the write path
+    private static final String SELECT_CHANGE = """
+            SELECT c.seq, c.change_type, c.employee_id, c.tenant_id, c.changed_at,
+                   e.first_name, e.last_name, e.email, e.version
+            FROM employee_changes c LEFT JOIN employees e ON e.id = c.employee_id
+            """;
+    private static final String SELECT_CHANGES = SELECT_CHANGE + "WHERE c.seq > ? ORDER BY c.seq LIMIT ?";
+    private static final String SELECT_TENANT_CHANGES =
+            SELECT_CHANGE + "WHERE c.tenant_id = ? AND c.seq > ? ORDER BY c.seq LIMIT ?";
+    private static final String SELECT_RELAY = "SELECT last_seq, purged_seq FROM employee_change_relay WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmployeeChangeLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // synchronous listener: runs in the transaction of the publisher
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        Object[] change = {event.id(), event.type().name(), Timestamp.from(Instant.now()), TenantContext.current()};
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(INSERT_CHANGE, change);
+            return;
+        }
+        pendingChanges().add(change);
+    }
+
+    // the changes of the current transaction, inserted right before it commits
+    private List<Object[]> pendingChanges() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Object[]> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    jdbcTemplate.batchUpdate(INSERT_CHANGE, changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeChangeLog.this);
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+
+    // up to limit relayed changes of the current tenant after since, ordered by seq
+    public EmployeeChangesDto readChanges(long since, int limit) {
+        List<EmployeeChangeDto> changes = jdbcTemplate.query(SELECT_TENANT_CHANGES, this::toChange,
+                TenantContext.current(), since, limit + 1);
+        boolean more = changes.size() > limit;
+        if (more) {
+            changes = changes.subList(0, limit);
+        }
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return EmployeeChangesDto.builder().changes(changes).next(next).more(more).build();
+    }
+
+    // checked after reading the changes: a purge running in between is still detected
+    public boolean isPurged(long since) {
+        return since < relayPosition()[1];
+    }
+
+    // the seq of the last relayed change
+    public long lastSeq() {
+        return relayPosition()[0];
+    }
+
+    // the changes of all tenants, for the relay and the off-heap store
+    public List<EmployeeChangeDto> changesSince(long since, int limit) {
+        return jdbcTemplate.query(SELECT_CHANGES, this::toChange, since, limit);
+    }
+
+    private long[] relayPosition() {
+        return jdbcTemplate.queryForObject(SELECT_RELAY,
+                (rs, rowNum) -> new long[]{rs.getLong("last_seq"), rs.getLong("purged_seq")});
+    }
+
+    private EmployeeChangeDto toChange(ResultSet rs, int rowNum) throws SQLException {
+        long employeeId = rs.getLong("employee_id");
+        String firstName = rs.getString("first_name");
+        EmployeeDto employee = firstName == null ? null : new EmployeeDto(employeeId, firstName,
+                rs.getString("last_name"), rs.getString("email"), rs.getObject("version", Long.class));
+        return new EmployeeChangeDto(rs.getLong("seq"),
+                EmployeeChangedEvent.ChangeType.valueOf(rs.getString("change_type")),
+                employeeId, rs.getString("tenant_id"), rs.getTimestamp("changed_at").toInstant(), employee);
+    }
+}
@@ -0,0 +1,116 @@
+package cool.cfapps.springboottesting.outbox;
+
+import cool.cfapps.springboottesting.shard.ConditionalOnUnsharded;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the outbox records written by {@link EmployeeChangeLog} to the {@link EmployeeChangeSink}, in batches,
+ * every relayInterval.
+ * <p>
+ * The relay numbers the records (seq) in the order it publishes them. The ids of the outbox rows can not be used
+ * for that: they are taken on insert, and a transaction holding a lower id may commit after one holding a higher
+ * id, so a consumer asking for everything after the higher id would never see the lower one. The relay only sees
+ * committed rows, and every batch holds the lock on the employee_change_relay row, so the seqs are gap free and
+ * increase in commit order, also with several application instances relaying the same table.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnUnsharded
+public class EmployeeChangeRelay implements SchedulingConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeRelay.class);
+
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(10);
+
+    private static final String LOCK_RELAY = "SELECT last_seq FROM employee_change_relay WHERE id = 1 FOR UPDATE";
+    private static final String SELECT_WAITING = "SELECT id FROM employee_changes WHERE seq IS NULL ORDER BY id LIMIT ?";
+    private static final String ASSIGN_SEQ = "UPDATE employee_changes SET seq = ? WHERE id = ?";
+    private static final String UPDATE_LAST_SEQ = "UPDATE employee_change_relay SET last_seq = ? WHERE id = 1";
+    private static final String SELECT_EXPIRED = "SELECT MAX(seq) FROM employee_changes WHERE changed_at < ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM employee_changes WHERE seq <= ?";
+    private static final String UPDATE_PURGED_SEQ = "UPDATE employee_change_relay SET purged_seq = ? WHERE id = 1";
+
+    private final EmployeeChangeLog changeLog;
+    private final EmployeeChangeSink sink;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+
+    public EmployeeChangeRelay(EmployeeChangeLog changeLog, EmployeeChangeSink sink, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager, OutboxProperties properties) {
+        this.changeLog = changeLog;
+        this.sink = sink;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::relay, properties.getRelayInterval());
+        taskRegistrar.addFixedDelayTask(this::purge, PURGE_INTERVAL);
+    }
+
+    // relays everything that is waiting, returns the number of changes relayed
+    public int relay() {
+        int relayed = 0;
+        int batch;
+        do {
+            Integer count = transactionTemplate.execute(status -> relayBatch());
+            batch = count == null ? 0 : count;
+            relayed += batch;
+        } while (batch == properties.getBatchSize());
+        return relayed;
+    }
+
+    private int relayBatch() {
+        Long lastSeq = jdbcTemplate.queryForObject(LOCK_RELAY, Long.class);
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_WAITING, Long.class, properties.getBatchSize());
+        if (lastSeq == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> seqs = new ArrayList<>(ids.size());
+        long seq = lastSeq;
+        for (Long id : ids) {
+            seqs.add(new Object[]{++seq, id});
+        }
+        jdbcTemplate.batchUpdate(ASSIGN_SEQ, seqs);
+        jdbcTemplate.update(UPDATE_LAST_SEQ, seq);
+        // published before the commit: a failing sink rolls the seqs back and the batch is relayed again
+        sink.publish(changeLog.changesSince(lastSeq, ids.size()));
+        return ids.size();
+    }
+
+    // deletes the relayed changes older than the retention, returns the number of changes deleted
+    public int purge() {
+        Integer purged = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject(LOCK_RELAY, Long.class);
+            Long expiredSeq = jdbcTemplate.queryForObject(SELECT_EXPIRED, Long.class,
+                    Timestamp.from(Instant.now().minus(properties.getRetention())));
+            if (expiredSeq == null) {
+                return 0;
+            }
+            int deleted = jdbcTemplate.update(DELETE_EXPIRED, expiredSeq);
+            jdbcTemplate.update(UPDATE_PURGED_SEQ, expiredSeq);
+            return deleted;
+        });
+        if (purged != null && purged > 0) {
+            log.info("Purged {} employee changes older than {}", purged, properties.getRetention());
+        }
+        return purged == null ? 0 : purged;
+    }
+}
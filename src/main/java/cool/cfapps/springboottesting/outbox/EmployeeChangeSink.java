@@ -0,0 +1,16 @@
+package cool.cfapps.springboottesting.outbox;
+
+import cool.cfapps.springboottesting.dto.EmployeeChangeDto;
+
+import java.util.List;
+
+/**
+ * Destination of the relayed employee changes, e.g. a message bus. Delivery is at least once: the relay calls
+ * the sink inside its transaction, when the sink throws (or the commit fails) the same changes are published
+ * again in the next run.
+ */
+public interface EmployeeChangeSink {
+
+    // the changes of one relay batch, ordered by seq
+    void publish(List<EmployeeChangeDto> changes);
+}
@@ -0,0 +1,47 @@
+package cool.cfapps.springboottesting.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import cool.cfapps.springboottesting.dto.EmployeeChangeDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the changes to a file, one JSON object per line.
+ */
+public class FileEmployeeChangeSink implements EmployeeChangeSink {
+
+    private final Path file;
+    private final ObjectWriter writer;
+
+    public FileEmployeeChangeSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.writer = objectMapper.writerFor(EmployeeChangeDto.class);
+    }
+
+    @Override
+    public synchronized void publish(List<EmployeeChangeDto> changes) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                for (EmployeeChangeDto change : changes) {
+                    out.write(writer.writeValueAsString(change));
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append the employee changes to " + file, e);
+        }
+    }
+}
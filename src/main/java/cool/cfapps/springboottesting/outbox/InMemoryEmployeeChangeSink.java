@@ -0,0 +1,27 @@
+package cool.cfapps.springboottesting.outbox;
+
+import cool.cfapps.springboottesting.dto.EmployeeChangeDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every published change, for tests.
+ */
+public class InMemoryEmployeeChangeSink implements EmployeeChangeSink {
+
+    private final List<EmployeeChangeDto> changes = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<EmployeeChangeDto> changes) {
+        this.changes.addAll(changes);
+    }
+
+    public synchronized List<EmployeeChangeDto> changes() {
+        return List.copyOf(changes);
+    }
+
+    public synchronized void clear() {
+        changes.clear();
+    }
+}
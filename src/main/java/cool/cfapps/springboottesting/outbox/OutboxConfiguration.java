@@ -0,0 +1,26 @@
+package cool.cfapps.springboottesting.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@Profile("!reactive")
+public class OutboxConfiguration {
+
+    // replace with a bean backed by a real message bus to push the changes to downstream systems
+    @Bean
+    @ConditionalOnMissingBean
+    public EmployeeChangeSink employeeChangeSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        return switch (properties.getSink()) {
+            case NONE -> changes -> {
+            };
+            case MEMORY -> new InMemoryEmployeeChangeSink();
+            case FILE -> new FileEmployeeChangeSink(properties.getFile(), objectMapper);
+        };
+    }
+}
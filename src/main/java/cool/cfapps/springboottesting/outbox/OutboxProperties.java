@@ -0,0 +1,30 @@
+package cool.cfapps.springboottesting.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.outbox")
+public class OutboxProperties {
+
+    public enum Sink {
+        // changes are only served by GET /api/v1/employees/changes
+        NONE,
+        // kept in memory, for tests
+        MEMORY,
+        // appended to file as NDJSON
+        FILE
+    }
+
+    // pause between two relay runs, every run relays all waiting changes
+    private Duration relayInterval = Duration.ofMillis(500);
+    // changes per relay transaction and per call of the sink
+    private int batchSize = 500;
+    // relayed changes are deleted after this, consumers that fall further behind have to read all employees again
+    private Duration retention = Duration.ofDays(7);
+    private Sink sink = Sink.NONE;
+    private Path file = Path.of(System.getProperty("java.io.tmpdir"), "employee-changes.ndjson");
+}
@@ -0,0 +1,29 @@
+package cool.cfapps.springboottesting.reactive;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// R2DBC mapping of the employees table, the JPA stack uses Employee
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+@Table("employees")
+public class EmployeeRow {
+    @Id
+    private Long id;
+    @Column("first_name")
+    private String firstName;
+    @Column("last_name")
+    private String lastName;
+    private String email;
+    @Version
+    private Long version;
+    // set by ReactiveEmployeeService from the tenant of the request, every query filters on it
+    @Column("tenant_id")
+    private String tenantId;
+}
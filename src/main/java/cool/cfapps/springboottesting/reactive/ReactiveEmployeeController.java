@@ -0,0 +1,71 @@
+package cool.cfapps.springboottesting.reactive;
+
+import cool.cfapps.springboottesting.dto.CreateEmployeeDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/employees")
+public class ReactiveEmployeeController {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<EmployeeDto> createEmployee(@RequestBody CreateEmployeeDto createEmployeeDto) {
+        return employeeService.createEmployee(EntityDtoUtil.toDto(createEmployeeDto));
+    }
+
+    // streamed with backpressure, as a JSON array by default or as NDJSON / server-sent events on request
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<EmployeeDto> readAllEmployees() {
+        return employeeService.readAllEmployees();
+    }
+
+    @GetMapping(params = "limit", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<EmployeeDto> readEmployeesPage(@RequestParam(defaultValue = "0") long after,
+                                               @RequestParam int limit) {
+        return employeeService.readEmployeesAfter(after, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping(params = "email")
+    public Mono<ResponseEntity<EmployeeDto>> readEmployeeByEmail(@RequestParam String email) {
+        return employeeService.readEmployeeByEmail(email)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<EmployeeDto>> readEmployee(@PathVariable Long id) {
+        return employeeService.readEmployee(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<EmployeeDto> updateEmployee(@RequestBody EmployeeDto employeeDto) {
+        return employeeService.updateEmployee(employeeDto);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Void> deleteEmployee(@PathVariable Long id) {
+        return employeeService.deleteEmployee(id);
+    }
+}
@@ -0,0 +1,39 @@
+package cool.cfapps.springboottesting.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Takes ids from the same employees_seq the JPA stack uses. Hibernate treats every sequence value as the start
+ * of a block of 50 ids (pooled-lo), so using a single sequence value here never collides with those blocks.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveEmployeeIdAllocator {
+
+    private final DatabaseClient databaseClient;
+    private final boolean mysql;
+
+    public ReactiveEmployeeIdAllocator(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        this.mysql = connectionFactory.getMetadata().getName().toLowerCase().contains("mysql");
+    }
+
+    public Mono<Long> nextId() {
+        if (!mysql) {
+            return databaseClient.sql("SELECT NEXT VALUE FOR employees_seq")
+                    .map(row -> row.get(0, Long.class))
+                    .one();
+        }
+        // MySQL: the sequence is emulated by a single row table, LAST_INSERT_ID(expr) is bound to the connection
+        return databaseClient.inConnection(connection ->
+                Mono.from(connection.createStatement(
+                                "UPDATE employees_seq SET next_val = LAST_INSERT_ID(next_val + 50)").execute())
+                        .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                        .then(Mono.from(connection.createStatement("SELECT LAST_INSERT_ID() - 50").execute()))
+                        .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Long.class)))));
+    }
+}
@@ -0,0 +1,45 @@
+package cool.cfapps.springboottesting.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// R2DBC has no tenant filter like Hibernate's @TenantId: every query takes the tenant of the request
+@Repository
+public interface ReactiveEmployeeRepository extends ReactiveCrudRepository<EmployeeRow, Long> {
+    Mono<EmployeeRow> findByTenantIdAndId(String tenantId, long id);
+
+    Mono<EmployeeRow> findByTenantIdAndEmail(String tenantId, String email);
+
+    Mono<Boolean> existsByTenantIdAndId(String tenantId, long id);
+
+    // rows are pulled from the database as the subscriber requests them
+    @Query("SELECT * FROM employees WHERE tenant_id = :tenantId ORDER BY id")
+    Flux<EmployeeRow> streamAll(String tenantId);
+
+    // keyset pagination: seek past the last seen id instead of skipping rows with OFFSET
+    @Query("SELECT * FROM employees WHERE tenant_id = :tenantId AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<EmployeeRow> findPage(String tenantId, long afterId, int limit);
+
+    @Modifying
+    @Query("UPDATE employees SET first_name = :firstName, last_name = :lastName, email = :email, " +
+            "version = version + 1 WHERE id = :id AND tenant_id = :tenantId")
+    Mono<Integer> updateById(String tenantId, long id, String firstName, String lastName, String email);
+
+    // the version updateById left, read in its transaction while the row is still locked by the update
+    @Query("SELECT version FROM employees WHERE id = :id AND tenant_id = :tenantId")
+    Mono<Long> findVersion(String tenantId, long id);
+
+    @Modifying
+    @Query("UPDATE employees SET first_name = :firstName, last_name = :lastName, email = :email, " +
+            "version = version + 1 WHERE id = :id AND tenant_id = :tenantId AND version = :version")
+    Mono<Integer> updateByIdAndVersion(String tenantId, long id, long version, String firstName, String lastName,
+                                       String email);
+
+    @Modifying
+    @Query("DELETE FROM employees WHERE id = :id AND tenant_id = :tenantId")
+    Mono<Integer> deleteEmployeeById(String tenantId, long id);
+}
@@ -0,0 +1,135 @@
+package cool.cfapps.springboottesting.reactive;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.entity.Employee;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.exception.ResourceNotFoundException;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of EmployeeService with the same semantics: single statement updates and deletes,
+ * optional version check on update, ResourceNotFoundException for missing employees. Every statement is scoped
+ * to the tenant {@link ReactiveTenantFilter} put into the Reactor context.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+    private final ReactiveEmployeeIdAllocator idAllocator;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReactiveEmployeeService(ReactiveEmployeeRepository employeeRepository,
+                                   ReactiveEmployeeIdAllocator idAllocator,
+                                   R2dbcEntityTemplate entityTemplate,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.employeeRepository = employeeRepository;
+        this.idAllocator = idAllocator;
+        this.entityTemplate = entityTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Mono<EmployeeDto> createEmployee(EmployeeDto employeeDto) {
+        assert employeeDto.getFirstName() != null;
+        assert employeeDto.getLastName() != null;
+        assert employeeDto.getId() == 0;
+
+        return ReactiveTenantFilter.currentTenant().flatMap(tenantId -> idAllocator.nextId()
+                .flatMap(id -> {
+                    EmployeeRow employeeRow = EntityDtoUtil.toRow(employeeDto);
+                    employeeRow.setId(id);
+                    employeeRow.setVersion(null);
+                    employeeRow.setTenantId(tenantId);
+                    // insert explicitly, save() would treat a row with an id as an update
+                    return entityTemplate.insert(employeeRow);
+                })
+                .map(EntityDtoUtil::toDto)
+                .doOnNext(created -> publish(tenantId, EmployeeChangedEvent.created(created.getId()))));
+    }
+
+    @Transactional(transactionManager = "reactiveTransactionManager")
+    public Mono<EmployeeDto> updateEmployee(EmployeeDto employeeDto) {
+        assert employeeDto.getFirstName() != null;
+        assert employeeDto.getLastName() != null;
+        assert employeeDto.getId() != 0;
+
+        long id = employeeDto.getId();
+        Long version = employeeDto.getVersion();
+        return ReactiveTenantFilter.currentTenant().flatMap(tenantId -> {
+            Mono<Integer> updated = version == null
+                    ? employeeRepository.updateById(tenantId, id,
+                    employeeDto.getFirstName(), employeeDto.getLastName(), employeeDto.getEmail())
+                    : employeeRepository.updateByIdAndVersion(tenantId, id, version,
+                    employeeDto.getFirstName(), employeeDto.getLastName(), employeeDto.getEmail());
+
+            return updated.flatMap(rows -> {
+                if (rows > 0) {
+                    publish(tenantId, EmployeeChangedEvent.updated(id));
+                    // without a version in the request the new one is read back, so the response has a version
+                    Mono<Long> newVersion = version != null
+                            ? Mono.just(version + 1) : employeeRepository.findVersion(tenantId, id);
+                    return newVersion.map(next -> {
+                        EmployeeDto updatedEmployeeDto = employeeDto.copyOf();
+                        updatedEmployeeDto.setVersion(next);
+                        return updatedEmployeeDto;
+                    });
+                }
+                Mono<Boolean> exists = version == null
+                        ? Mono.just(false) : employeeRepository.existsByTenantIdAndId(tenantId, id);
+                return exists.flatMap(stale -> Mono.error(stale
+                        ? new ObjectOptimisticLockingFailureException(Employee.class, id)
+                        : new ResourceNotFoundException("Employee with id " + id + " not found")));
+            });
+        });
+    }
+
+    public Mono<EmployeeDto> readEmployee(long id) {
+        return ReactiveTenantFilter.currentTenant()
+                .flatMap(tenantId -> employeeRepository.findByTenantIdAndId(tenantId, id))
+                .map(EntityDtoUtil::toDto);
+    }
+
+    public Mono<EmployeeDto> readEmployeeByEmail(String email) {
+        return ReactiveTenantFilter.currentTenant()
+                .flatMap(tenantId -> employeeRepository.findByTenantIdAndEmail(tenantId, email))
+                .map(EntityDtoUtil::toDto);
+    }
+
+    public Mono<Void> deleteEmployee(long id) {
+        return ReactiveTenantFilter.currentTenant()
+                .flatMap(tenantId -> employeeRepository.deleteEmployeeById(tenantId, id)
+                        .flatMap(rows -> rows > 0
+                                ? Mono.fromRunnable(() -> publish(tenantId, EmployeeChangedEvent.deleted(id)))
+                                : Mono.error(new ResourceNotFoundException("Employee with id " + id + " not found"))))
+                .then();
+    }
+
+    public Flux<EmployeeDto> readAllEmployees() {
+        return ReactiveTenantFilter.currentTenant()
+                .flatMapMany(employeeRepository::streamAll)
+                .map(EntityDtoUtil::toDto);
+    }
+
+    public Flux<EmployeeDto> readEmployeesAfter(long afterId, int limit) {
+        return ReactiveTenantFilter.currentTenant()
+                .flatMapMany(tenantId -> employeeRepository.findPage(tenantId, afterId, limit))
+                .map(EntityDtoUtil::toDto);
+    }
+
+    // the listeners (cache, list version) read the tenant from the thread
+    private void publish(String tenantId, EmployeeChangedEvent event) {
+        try (TenantContext.Scope ignored = TenantContext.open(tenantId)) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
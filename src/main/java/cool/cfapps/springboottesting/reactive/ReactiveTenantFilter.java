@@ -0,0 +1,53 @@
+package cool.cfapps.springboottesting.reactive;
+
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import cool.cfapps.springboottesting.tenant.TenantProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of the tenant resolution in TenantFilter: the tenant header (none: the default tenant,
+ * invalid: 400) is put into the Reactor context of the request, a thread-local {@link TenantContext} would not
+ * follow the request across threads. {@link #currentTenant()} reads it back.
+ * <p>
+ * There is no admission per tenant here, the R2DBC pool queues the statements itself.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveTenantFilter implements WebFilter {
+
+    private static final String TENANT_KEY = ReactiveTenantFilter.class.getName() + ".tenant";
+
+    private final TenantProperties properties;
+
+    public ReactiveTenantFilter(TenantProperties properties) {
+        this.properties = properties;
+    }
+
+    public static Mono<String> currentTenant() {
+        return Mono.deferContextual(context -> Mono.just(context.getOrDefault(TENANT_KEY,
+                TenantContext.DEFAULT_TENANT)));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().pathWithinApplication().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        String header = exchange.getRequest().getHeaders().getFirst(properties.getHeader());
+        String tenantId = header == null ? TenantContext.DEFAULT_TENANT : header;
+        // responses differ per tenant, shared caches must not mix them up
+        exchange.getResponse().getHeaders().add(HttpHeaders.VARY, properties.getHeader());
+        if (!TenantContext.isValid(tenantId)) {
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange).contextWrite(context -> context.put(TENANT_KEY, tenantId));
+    }
+}
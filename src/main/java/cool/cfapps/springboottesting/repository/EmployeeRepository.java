@@ -1,11 +1,23 @@
 package cool.cfapps.springboottesting.repository;
 
+import cool.cfapps.springboottesting.dto.EmployeeDto;
 import cool.cfapps.springboottesting.entity.Employee;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
@@ -27,4 +39,78 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query(value = "SELECT * FROM employees e WHERE e.first_name = :firstName AND e.last_name = :lastName",
             nativeQuery = true)
     Optional<Employee> findByNativeSqlNamedParams(String firstName, String lastName);
+
+    // all tenants: native queries are not scoped to the current tenant
+    @Query(value = "SELECT DISTINCT tenant_id FROM employees", nativeQuery = true)
+    List<String> findTenantIds();
+
+    // stream all rows in id order, fetching them from the JDBC driver in bounded chunks
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e ORDER BY e.id")
+    Stream<Employee> streamAll();
+
+    // the given ids that exist, locked until the end of the transaction so a bulk delete removes exactly these
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e.id FROM Employee e WHERE e.id IN :ids")
+    List<Long> lockIdsByIdIn(Collection<Long> ids);
+
+    // bulk delete in a single statement, returns the number of deleted rows
+    @Modifying
+    @Query("DELETE FROM Employee e WHERE e.id IN :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    // single statement update without reading the row first, returns the number of updated rows
+    @Modifying
+    @Query("UPDATE Employee e SET e.firstName = :firstName, e.lastName = :lastName, e.email = :email, " +
+            "e.version = e.version + 1 WHERE e.id = :id")
+    int updateById(long id, String firstName, String lastName, String email);
+
+    // the version updateById left, read in its transaction while the row is still locked by the update
+    @Query("SELECT e.version FROM Employee e WHERE e.id = :id")
+    Optional<Long> findVersionById(long id);
+
+    // same as updateById, but only if nobody else has changed the row since the given version was read
+    @Modifying
+    @Query("UPDATE Employee e SET e.firstName = :firstName, e.lastName = :lastName, e.email = :email, " +
+            "e.version = e.version + 1 WHERE e.id = :id AND e.version = :version")
+    int updateByIdAndVersion(long id, long version, String firstName, String lastName, String email);
+
+    // single statement delete without loading the entity, returns the number of deleted rows
+    @Modifying
+    @Query("DELETE FROM Employee e WHERE e.id = :id")
+    int deleteEmployeeById(long id);
+
+    // read-only projections: the constructor expression builds EmployeeDto straight from the result set, so no
+    // managed entities, no dirty-checking snapshots and nothing to flush
+    String EMPLOYEE_DTO = "SELECT new cool.cfapps.springboottesting.dto.EmployeeDto(" +
+            "e.id, e.firstName, e.lastName, e.email, e.version) FROM Employee e";
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(EMPLOYEE_DTO + " WHERE e.id = :id")
+    Optional<EmployeeDto> findDtoById(long id);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(EMPLOYEE_DTO + " WHERE e.email = :email")
+    Optional<EmployeeDto> findDtoByEmail(String email);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(EMPLOYEE_DTO + " ORDER BY e.id")
+    List<EmployeeDto> findAllDtos();
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(EMPLOYEE_DTO + " WHERE e.id IN :ids")
+    List<EmployeeDto> findDtosByIdIn(Collection<Long> ids);
+
+    // keyset pagination: seek past the last seen id instead of skipping rows with OFFSET
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(EMPLOYEE_DTO + " WHERE e.id > :id ORDER BY e.id")
+    List<EmployeeDto> findDtosByIdGreaterThan(long id, Pageable pageable);
 }
@@ -0,0 +1,53 @@
+package cool.cfapps.springboottesting.routing;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Decides where a connection goes when the replica is enabled (see {@link ReadWriteRoutingConfiguration}):
+ * read-only transactions to the replica, everything else to the primary. Work that must see the latest
+ * committed state runs pinned to the primary with {@link #onPrimary(Supplier)} or {@link #pinToPrimary()}.
+ * Without a replica the pins cost a thread local and nothing else.
+ */
+public final class ReadWriteRouting {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReadWriteRouting() {
+    }
+
+    public static Route currentRoute() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPinnedToPrimary()
+                ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    // nested pins are fine, the outermost one is released last
+    public static Pin pinToPrimary() {
+        if (isPinnedToPrimary()) {
+            return () -> {
+            };
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        return PINNED_TO_PRIMARY::remove;
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        try (Pin ignored = pinToPrimary()) {
+            return work.get();
+        }
+    }
+
+    public interface Pin extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,78 @@
+package cool.cfapps.springboottesting.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Opt-in (employees.replica.enabled=true): the application DataSource routes read-only transactions to a
+ * replica pool and everything else to the primary pool (spring.datasource.*), see {@link ReadWriteRouting}.
+ * The pools are beans for their lifecycle and the hikaricp metrics, but are not injected anywhere.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "employees.replica", name = "enabled", havingValue = "true")
+public class ReadWriteRoutingConfiguration {
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ReplicaProperties replicaProperties;
+    private final Environment environment;
+
+    public ReadWriteRoutingConfiguration(DataSourceProperties dataSourceProperties,
+                                         ReplicaProperties replicaProperties, Environment environment) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.replicaProperties = replicaProperties;
+        this.environment = environment;
+    }
+
+    @Bean(autowireCandidate = false)
+    public HikariDataSource primaryDataSource() {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        // what Boot would have bound to its own pool
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (!StringUtils.hasText(primary.getPoolName())) {
+            primary.setPoolName("primary");
+        }
+        return primary;
+    }
+
+    @Bean(autowireCandidate = false)
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword())
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    // primary: the pools are DataSources as well, for the single candidate conditions of the auto-configurations
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource(), replicaDataSource()));
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter(replicaProperties.getReadYourWrites(), Clock.systemUTC());
+    }
+}
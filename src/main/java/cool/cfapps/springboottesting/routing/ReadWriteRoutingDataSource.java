@@ -0,0 +1,26 @@
+package cool.cfapps.springboottesting.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out primary or replica connections by {@link ReadWriteRouting#currentRoute()}. The route is decided
+ * when the connection is taken, so this has to sit behind a LazyConnectionDataSourceProxy: the transaction
+ * managers take their connection before the transaction is marked read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(ReadWriteRouting.Route.PRIMARY, primary, ReadWriteRouting.Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReadWriteRouting.currentRoute();
+    }
+}
@@ -0,0 +1,80 @@
+package cool.cfapps.springboottesting.routing;
+
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Read-your-writes: a request that committed an employee change answers with a cookie holding the end of the
+ * stickiness window, requests carrying an unexpired cookie are pinned to the primary. The cookie is set on
+ * the commit, before the response is written, and keeps working across instances.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "employees-primary-until";
+    private static final String WRITTEN = ReadYourWritesFilter.class.getName() + ".WRITTEN";
+
+    private final Duration readYourWrites;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration readYourWrites, Clock clock) {
+        this.readYourWrites = readYourWrites;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!wroteRecently(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (ReadWriteRouting.Pin ignored = ReadWriteRouting.pinToPrimary()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private boolean wroteRecently(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > clock.millis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    // runs on the writing thread after the commit; writes outside a request (imports, jobs) are not sticky
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getResponse() == null
+                || attributes.getRequest().getAttribute(WRITTEN) != null) {
+            return;
+        }
+        attributes.getRequest().setAttribute(WRITTEN, Boolean.TRUE);
+        Cookie cookie = new Cookie(COOKIE, String.valueOf(clock.millis() + readYourWrites.toMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, readYourWrites.toSeconds()));
+        attributes.getResponse().addCookie(cookie);
+    }
+}
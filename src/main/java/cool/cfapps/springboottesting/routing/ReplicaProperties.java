@@ -0,0 +1,20 @@
+package cool.cfapps.springboottesting.routing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.replica")
+public class ReplicaProperties {
+
+    // off: everything uses spring.datasource
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // how long a client reads from the primary after a write, should cover the replication lag
+    private Duration readYourWrites = Duration.ofSeconds(5);
+}
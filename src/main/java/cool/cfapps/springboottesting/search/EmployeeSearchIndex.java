@@ -0,0 +1,291 @@
+package cool.cfapps.springboottesting.search;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over first name, last name and the local part of the email.
+ * <p>
+ * Every field is split into lower case tokens without diacritics ("Müller-Lüdenscheidt" -> "muller",
+ * "ludenscheidt"). The tokens are kept in a sorted map (token -> employee ids), so all tokens starting with a
+ * query term are one range of the map. A search walks the range of its most selective term (fewest postings),
+ * keeps the employees that match every term, and stops after {@code limit * CANDIDATES_PER_RESULT} matches: the
+ * cost depends on the limit, not on the number of employees. The matches are ranked by
+ * <ol>
+ *     <li>the field a term matched: last name before first name before email</li>
+ *     <li>whole token before prefix</li>
+ *     <li>last name, first name, id</li>
+ * </ol>
+ * Searches do not lock, writes are serialized.
+ */
+public class EmployeeSearchIndex {
+
+    static final int CANDIDATES_PER_RESULT = 5;
+    // upper bound for the postings one search looks at, a rare combination of terms may miss matches beyond it
+    static final int MAX_SCANNED = 20_000;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final long[] NO_IDS = new long[0];
+    private static final String[] NO_TOKENS = new String[0];
+    private static final int PREFIX_PENALTY = 3;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score)
+            .thenComparing(hit -> hit.employee().getLastName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(hit -> hit.employee().getFirstName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparingLong(hit -> hit.employee().getId());
+
+    private final ConcurrentNavigableMap<String, long[]> postings;
+    private final ConcurrentMap<Long, EmployeeDto> employees;
+
+    public EmployeeSearchIndex() {
+        this(new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private EmployeeSearchIndex(ConcurrentNavigableMap<String, long[]> postings,
+                                ConcurrentMap<Long, EmployeeDto> employees) {
+        this.postings = postings;
+        this.employees = employees;
+    }
+
+    // bulk build: the postings are collected first and the sorted map is created in one go
+    public static EmployeeSearchIndex build(Consumer<Consumer<EmployeeDto>> source) {
+        Map<String, long[]> collected = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        ConcurrentMap<Long, EmployeeDto> employees = new ConcurrentHashMap<>();
+        source.accept(employeeDto -> {
+            employees.put(employeeDto.getId(), employeeDto.copyOf());
+            for (String token : tokens(employeeDto)) {
+                int size = sizes.merge(token, 1, Integer::sum);
+                long[] ids = collected.get(token);
+                if (ids == null || ids.length < size) {
+                    ids = ids == null ? new long[1] : Arrays.copyOf(ids, ids.length * 2);
+                    collected.put(token, ids);
+                }
+                ids[size - 1] = employeeDto.getId();
+            }
+        });
+        TreeMap<String, long[]> sorted = new TreeMap<>();
+        collected.forEach((token, ids) -> sorted.put(token, Arrays.copyOf(ids, sizes.get(token))));
+        return new EmployeeSearchIndex(new ConcurrentSkipListMap<>(sorted), employees);
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    public synchronized void index(EmployeeDto employeeDto) {
+        EmployeeDto previous = employees.put(employeeDto.getId(), employeeDto.copyOf());
+        if (previous != null) {
+            removePostings(previous);
+        }
+        for (String token : tokens(employeeDto)) {
+            postings.merge(token, new long[]{employeeDto.getId()}, EmployeeSearchIndex::concat);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        EmployeeDto previous = employees.remove(id);
+        if (previous != null) {
+            removePostings(previous);
+        }
+    }
+
+    private void removePostings(EmployeeDto employeeDto) {
+        for (String token : tokens(employeeDto)) {
+            postings.computeIfPresent(token, (key, ids) -> {
+                long[] remaining = without(ids, employeeDto.getId());
+                return remaining.length == 0 ? null : remaining;
+            });
+        }
+    }
+
+    public List<EmployeeDto> search(String query, int limit) {
+        String[] terms = normalizedTokens(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        String driver = terms[0];
+        if (terms.length > 1) {
+            int driverPostings = postingCount(driver, MAX_SCANNED);
+            for (int i = 1; i < terms.length; i++) {
+                int termPostings = postingCount(terms[i], driverPostings);
+                if (termPostings < driverPostings) {
+                    driver = terms[i];
+                    driverPostings = termPostings;
+                }
+            }
+        }
+
+        int wanted = limit * CANDIDATES_PER_RESULT;
+        int scanned = 0;
+        Set<Long> seen = new HashSet<>();
+        List<Hit> hits = new ArrayList<>(wanted);
+        scan:
+        for (long[] ids : range(driver).values()) {
+            for (long id : ids) {
+                if (++scanned > MAX_SCANNED || hits.size() == wanted) {
+                    break scan;
+                }
+                if (!seen.add(id)) {
+                    continue;
+                }
+                EmployeeDto employeeDto = employees.get(id);
+                int score = employeeDto == null ? -1 : score(employeeDto, terms);
+                if (score >= 0) {
+                    hits.add(new Hit(score, employeeDto));
+                }
+            }
+        }
+
+        hits.sort(RANKING);
+        List<EmployeeDto> result = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            result.add(hits.get(i).employee().copyOf());
+        }
+        return result;
+    }
+
+    private ConcurrentNavigableMap<String, long[]> range(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // postings of all tokens starting with prefix, counting stops at cap
+    private int postingCount(String prefix, int cap) {
+        int count = 0;
+        for (long[] ids : range(prefix).values()) {
+            count += ids.length;
+            if (count >= cap) {
+                return cap;
+            }
+        }
+        return count;
+    }
+
+    // lower is better, -1 if a term matches none of the fields
+    private static int score(EmployeeDto employeeDto, String[] terms) {
+        String[][] fields = {
+                normalizedTokens(employeeDto.getLastName()),
+                normalizedTokens(employeeDto.getFirstName()),
+                normalizedTokens(localPart(employeeDto.getEmail()))};
+        int score = 0;
+        for (String term : terms) {
+            int best = -1;
+            for (int field = 0; field < fields.length; field++) {
+                for (String token : fields[field]) {
+                    int tokenScore = token.equals(term) ? field : token.startsWith(term) ? field + PREFIX_PENALTY : -1;
+                    if (tokenScore >= 0 && (best < 0 || tokenScore < best)) {
+                        best = tokenScore;
+                    }
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private static Set<String> tokens(EmployeeDto employeeDto) {
+        Set<String> tokens = new HashSet<>();
+        tokens.addAll(Arrays.asList(normalizedTokens(employeeDto.getLastName())));
+        tokens.addAll(Arrays.asList(normalizedTokens(employeeDto.getFirstName())));
+        tokens.addAll(Arrays.asList(normalizedTokens(localPart(employeeDto.getEmail()))));
+        return tokens;
+    }
+
+    // the domain is left out, it is shared by (nearly) everybody and would only produce huge postings
+    private static String localPart(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.indexOf('@');
+        return at < 0 ? email : email.substring(0, at);
+    }
+
+    static String[] normalizedTokens(String text) {
+        if (text == null || text.isBlank()) {
+            return NO_TOKENS;
+        }
+        String[] asciiTokens = asciiTokens(text);
+        if (asciiTokens != null) {
+            return asciiTokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    // fast path for plain ASCII text (no diacritics to strip), null if the text contains other characters
+    private static String[] asciiTokens(String text) {
+        List<String> tokens = new ArrayList<>(2);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (c > 127) {
+                return null;
+            }
+            boolean tokenChar = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    private static long[] concat(long[] ids, long[] added) {
+        for (long id : ids) {
+            if (id == added[0]) {
+                return ids;
+            }
+        }
+        long[] merged = Arrays.copyOf(ids, ids.length + 1);
+        merged[ids.length] = added[0];
+        return merged;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        int index = -1;
+        for (int i = 0; i < ids.length && index < 0; i++) {
+            if (ids[i] == id) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return NO_IDS;
+        }
+        long[] remaining = new long[ids.length - 1];
+        System.arraycopy(ids, 0, remaining, 0, index);
+        System.arraycopy(ids, index + 1, remaining, index, ids.length - index - 1);
+        return remaining;
+    }
+
+    private record Hit(int score, EmployeeDto employee) {
+    }
+}
@@ -0,0 +1,157 @@
+package cool.cfapps.springboottesting.search;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.routing.ReadWriteRouting;
+import cool.cfapps.springboottesting.service.EmployeeService;
+import cool.cfapps.springboottesting.shard.ConditionalOnUnsharded;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps one {@link EmployeeSearchIndex} per tenant in sync with the employees table.
+ * <p>
+ * The indexes are built in the background once the application is ready; until then searches run against the
+ * (empty) previous index. Afterwards every {@link EmployeeChangedEvent} reloads the employee: the ids changed in
+ * one transaction are collected and reloaded with a single query after the commit, so a bulk write costs one
+ * query per chunk instead of one per row. Changes that happen while the index is being built are applied again
+ * once it is in place.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnUnsharded
+public class EmployeeSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSearchService.class);
+
+    private final EmployeeService employeeService;
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate reloadTransaction;
+    private final Set<TenantEmployee> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private final Map<String, EmployeeSearchIndex> indexes = new ConcurrentHashMap<>();
+    private volatile boolean building;
+
+    public EmployeeSearchService(EmployeeService employeeService, EmployeeRepository employeeRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        // after the commit the resources of the finished transaction are still bound, the reload needs its own
+        this.reloadTransaction = new TransactionTemplate(transactionManager);
+        this.reloadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reloadTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexInBackground() {
+        Thread thread = new Thread(this::buildIndex, "employee-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void buildIndex() {
+        building = true;
+        long start = System.nanoTime();
+        int employees = 0;
+        try {
+            for (String tenantId : employeeRepository.findTenantIds()) {
+                EmployeeSearchIndex index = TenantContext.call(tenantId,
+                        () -> EmployeeSearchIndex.build(employeeService::streamAllEmployees));
+                indexes.put(tenantId, index);
+                employees += index.size();
+            }
+        } finally {
+            building = false;
+        }
+        log.info("Search index built: {} employees of {} tenants in {} ms", employees, indexes.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        List<TenantEmployee> changed = new ArrayList<>(changedDuringBuild);
+        changedDuringBuild.removeAll(changed);
+        changed.stream().collect(Collectors.groupingBy(TenantEmployee::tenantId,
+                        Collectors.mapping(TenantEmployee::id, Collectors.toList())))
+                .forEach((tenantId, ids) -> TenantContext.call(tenantId, () -> {
+                    reload(ids);
+                    return null;
+                }));
+    }
+
+    // the employees of the current tenant
+    public List<EmployeeDto> search(String query, int limit) {
+        EmployeeSearchIndex index = indexes.get(TenantContext.current());
+        return index == null ? List.of() : index.search(query, limit);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (building) {
+            changedDuringBuild.add(new TenantEmployee(TenantContext.current(), event.id()));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload(List.of(event.id()));
+            return;
+        }
+        pendingIds().add(event.id());
+    }
+
+    // the ids changed in the current transaction, reloaded once it has committed
+    private Set<Long> pendingIds() {
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> ids = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeSearchService.this);
+                    if (status == STATUS_COMMITTED) {
+                        reload(ids);
+                    }
+                }
+            });
+            pending = ids;
+        }
+        return pending;
+    }
+
+    // runs for the current tenant: after the commit on the writing thread, which still works for that tenant
+    private void reload(Iterable<Long> ids) {
+        Set<Long> missing = new HashSet<>();
+        ids.forEach(missing::add);
+        if (missing.isEmpty()) {
+            return;
+        }
+        // from the primary, a replica may not have the change yet
+        List<EmployeeDto> employees = ReadWriteRouting.onPrimary(
+                () -> reloadTransaction.execute(status -> employeeRepository.findDtosByIdIn(missing)));
+        EmployeeSearchIndex current = indexes.computeIfAbsent(TenantContext.current(),
+                tenantId -> new EmployeeSearchIndex());
+        for (EmployeeDto employeeDto : employees == null ? List.<EmployeeDto>of() : employees) {
+            current.index(employeeDto);
+            missing.remove(employeeDto.getId());
+        }
+        // deleted in the meantime
+        missing.forEach(current::remove);
+    }
+
+    private record TenantEmployee(String tenantId, long id) {
+    }
+}
@@ -0,0 +1,195 @@
+package cool.cfapps.springboottesting.service;
+
+import cool.cfapps.springboottesting.dto.BatchResultDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.entity.Employee;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bulk create/update/delete of employees. The input is split into chunks and every chunk is committed in its
+ * own transaction, so Hibernate can send the statements as JDBC batches and a failing chunk only rolls back
+ * itself: the chunks before and after it are committed, the result lists the failed chunks and their ids.
+ */
+@Service
+public class EmployeeBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeBatchService.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public EmployeeBatchService(EmployeeRepository employeeRepository,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${employees.batch.chunk-size:500}") int chunkSize) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchResultDto createEmployees(List<EmployeeDto> employeeDtos) {
+        BatchReport report = new BatchReport("create", employeeDtos.size());
+        List<List<EmployeeDto>> chunks = chunks(employeeDtos);
+        for (int chunkNumber = 0; chunkNumber < chunks.size(); chunkNumber++) {
+            List<EmployeeDto> chunk = chunks.get(chunkNumber);
+            List<Employee> employees = new ArrayList<>(chunk.size());
+            for (EmployeeDto employeeDto : chunk) {
+                Employee employee = EntityDtoUtil.toEntity(employeeDto);
+                assert employee.getFirstName() != null;
+                assert employee.getLastName() != null;
+                assert employee.getId() == 0;
+                employees.add(employee);
+            }
+            report.commit(chunkNumber, List.of(), () -> {
+                ChunkResult result = new ChunkResult();
+                for (Employee employee : employeeRepository.saveAll(employees)) {
+                    eventPublisher.publishEvent(EmployeeChangedEvent.created(employee.getId()));
+                    result.processed++;
+                }
+                return result;
+            });
+        }
+        return report.result();
+    }
+
+    public BatchResultDto updateEmployees(List<EmployeeDto> employeeDtos) {
+        BatchReport report = new BatchReport("update", employeeDtos.size());
+        List<List<EmployeeDto>> chunks = chunks(employeeDtos);
+        for (int chunkNumber = 0; chunkNumber < chunks.size(); chunkNumber++) {
+            List<EmployeeDto> chunk = chunks.get(chunkNumber);
+            List<Long> ids = chunk.stream().map(EmployeeDto::getId).toList();
+            // one SELECT ... WHERE id IN (...) per chunk, the dirty entities are flushed as a batch on commit
+            // and Hibernate's version check still guards against rows changed after the SELECT
+            report.commit(chunkNumber, ids, () -> {
+                Map<Long, Employee> existing = new HashMap<>();
+                for (Employee employee : employeeRepository.findAllById(ids)) {
+                    existing.put(employee.getId(), employee);
+                }
+                ChunkResult result = new ChunkResult();
+                for (EmployeeDto employeeDto : chunk) {
+                    Employee employee = existing.get(employeeDto.getId());
+                    if (employee == null) {
+                        result.notFound.add(employeeDto.getId());
+                        continue;
+                    }
+                    if (employeeDto.getVersion() != null && !employeeDto.getVersion().equals(employee.getVersion())) {
+                        result.conflicts.add(employeeDto.getId());
+                        continue;
+                    }
+                    employee.setFirstName(employeeDto.getFirstName());
+                    employee.setLastName(employeeDto.getLastName());
+                    employee.setEmail(employeeDto.getEmail());
+                    eventPublisher.publishEvent(EmployeeChangedEvent.updated(employee.getId()));
+                    result.processed++;
+                }
+                return result;
+            });
+        }
+        return report.result();
+    }
+
+    public BatchResultDto deleteEmployees(List<Long> ids) {
+        BatchReport report = new BatchReport("delete", ids.size());
+        List<List<Long>> chunks = chunks(ids);
+        for (int chunkNumber = 0; chunkNumber < chunks.size(); chunkNumber++) {
+            List<Long> chunk = chunks.get(chunkNumber);
+            // only the ids that exist are deleted and get a deleted event, the others are reported as not found
+            report.commit(chunkNumber, chunk, () -> {
+                List<Long> existing = employeeRepository.lockIdsByIdIn(chunk);
+                Set<Long> existingIds = new HashSet<>(existing);
+                ChunkResult result = new ChunkResult();
+                for (Long id : chunk) {
+                    if (!existingIds.contains(id)) {
+                        result.notFound.add(id);
+                    }
+                }
+                if (existing.isEmpty()) {
+                    return result;
+                }
+                result.processed = employeeRepository.deleteAllByIdIn(existing);
+                for (Long id : existing) {
+                    eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+                }
+                return result;
+            });
+        }
+        return report.result();
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>((items.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+
+    // what a chunk did inside its transaction, only counted once the transaction has committed
+    private static class ChunkResult {
+        private int processed;
+        private final List<Long> notFound = new ArrayList<>();
+        private final List<Long> conflicts = new ArrayList<>();
+    }
+
+    private class BatchReport {
+        private final String operation;
+        private final int requested;
+        private final long start = System.nanoTime();
+        private int processed;
+        private final List<Long> notFound = new ArrayList<>();
+        private final List<Long> conflicts = new ArrayList<>();
+        private final List<Integer> failedChunks = new ArrayList<>();
+        private final List<Long> failed = new ArrayList<>();
+
+        BatchReport(String operation, int requested) {
+            this.operation = operation;
+            this.requested = requested;
+        }
+
+        // a chunk that fails, also in the flush on commit, is rolled back and reported with its ids; the
+        // following chunks still run, like the chunks of an import
+        void commit(int chunkNumber, List<Long> ids, Supplier<ChunkResult> work) {
+            ChunkResult result;
+            try {
+                result = transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                log.warn("Batch {}: chunk {} failed", operation, chunkNumber, e);
+                failedChunks.add(chunkNumber);
+                failed.addAll(ids);
+                return;
+            }
+            processed += result.processed;
+            notFound.addAll(result.notFound);
+            conflicts.addAll(result.conflicts);
+        }
+
+        BatchResultDto result() {
+            BatchResultDto result = BatchResultDto.of(requested, processed, notFound, conflicts, chunkSize,
+                    failedChunks, failed, System.nanoTime() - start);
+            log.info("Batch {} of {} employees: {} rows in {} ms ({} rows/s), {} failed chunks", operation,
+                    requested, result.getProcessed(), result.getElapsedMillis(), Math.round(result.getRowsPerSecond()),
+                    failedChunks.size());
+            return result;
+        }
+    }
+}
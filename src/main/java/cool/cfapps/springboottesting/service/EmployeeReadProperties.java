@@ -0,0 +1,18 @@
+package cool.cfapps.springboottesting.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees.reads")
+public class EmployeeReadProperties {
+
+    // concurrent lookups of the same id or email share one query
+    private boolean singleFlight = true;
+    // lookups by id arriving while another one queries the database wait up to the window and go as one
+    // WHERE id IN (...) query; 0 turns batching off
+    private Duration batchWindow = Duration.ofMillis(2);
+    private int maxBatchSize = 100;
+}
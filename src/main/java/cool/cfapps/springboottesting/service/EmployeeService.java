@@ -1,25 +1,74 @@
 package cool.cfapps.springboottesting.service;
 
+import cool.cfapps.springboottesting.cache.EmployeeCache;
 import cool.cfapps.springboottesting.dto.EmployeeDto;
 import cool.cfapps.springboottesting.entity.Employee;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
 import cool.cfapps.springboottesting.exception.ResourceNotFoundException;
+import cool.cfapps.springboottesting.memory.OffHeapEmployeeRepository;
 import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.routing.ReadWriteRouting;
+import cool.cfapps.springboottesting.shard.ShardedEmployeeStore;
+import cool.cfapps.springboottesting.tenant.TenantContext;
 import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import cool.cfapps.springboottesting.util.MicroBatcher;
+import cool.cfapps.springboottesting.util.SingleFlight;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeService {
 
+    private static final int SHARD_STREAM_PAGE_SIZE = 500;
+
     private final EmployeeRepository employeeRepository;
+    private final EntityManager entityManager;
+    private final EmployeeCache employeeCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean singleFlight;
+    private final SingleFlight<ReadKey, Optional<EmployeeDto>> employeeFlights = new SingleFlight<>();
+    private final SingleFlight<ReadKey, Optional<Long>> emailFlights = new SingleFlight<>();
+    @Nullable
+    private final MicroBatcher<Long, EmployeeDto> idBatcher;
+    @Nullable
+    private final OffHeapEmployeeRepository offHeapEmployeeRepository;
+    // set when employees.shards.enabled: the employees live on the shards instead of spring.datasource. Nothing
+    // else reads them there, so shard writes publish no EmployeeChangedEvent (see ConditionalOnUnsharded)
+    @Nullable
+    private final ShardedEmployeeStore shardedEmployeeStore;
 
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, EntityManager entityManager,
+                           EmployeeCache employeeCache, ApplicationEventPublisher eventPublisher,
+                           EmployeeReadProperties readProperties,
+                           @Nullable OffHeapEmployeeRepository offHeapEmployeeRepository,
+                           @Nullable ShardedEmployeeStore shardedEmployeeStore) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.employeeCache = employeeCache;
+        this.eventPublisher = eventPublisher;
+        this.singleFlight = readProperties.isSingleFlight();
+        this.idBatcher = readProperties.getBatchWindow().isZero() ? null
+                : new MicroBatcher<>(readProperties.getBatchWindow(), readProperties.getMaxBatchSize(),
+                this::queryByIds);
+        this.offHeapEmployeeRepository = offHeapEmployeeRepository;
+        this.shardedEmployeeStore = shardedEmployeeStore;
     }
 
+    // transactional so the outbox record (see EmployeeChangeLog) is committed together with the employee
+    @Transactional
     public EmployeeDto createEmployee(EmployeeDto employeeDto) {
 
         Employee employee = EntityDtoUtil.toEntity(employeeDto);
@@ -28,9 +77,16 @@ public class EmployeeService {
         assert employee.getLastName() != null;
         assert employee.getId() == 0;
 
-        return EntityDtoUtil.toDto(employeeRepository.save(employee));
+        if (shardedEmployeeStore != null) {
+            return shardedEmployeeStore.create(employeeDto);
+        }
+        EmployeeDto createdEmployeeDto = EntityDtoUtil.toDto(employeeRepository.save(employee));
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(createdEmployeeDto.getId()));
+        return createdEmployeeDto;
     }
 
+    // one UPDATE statement; a known version makes it conditional so concurrent writers are detected
+    @Transactional
     public EmployeeDto updateEmployee(EmployeeDto employeeDto) {
         Employee employee = EntityDtoUtil.toEntity(employeeDto);
         assert employee != null;
@@ -38,32 +94,191 @@ public class EmployeeService {
         assert employee.getLastName() != null;
         assert employee.getId() != 0;
 
-        Optional<Employee> existingEmployee = employeeRepository.findById(employee.getId());
-        if (existingEmployee.isPresent()) {
-            return EntityDtoUtil.toDto(employeeRepository.save(employee));
+        Long version = employee.getVersion();
+        int updated;
+        if (shardedEmployeeStore != null) {
+            updated = shardedEmployeeStore.update(employeeDto) ? 1 : 0;
         } else {
+            updated = version == null
+                    ? employeeRepository.updateById(employee.getId(),
+                    employee.getFirstName(), employee.getLastName(), employee.getEmail())
+                    : employeeRepository.updateByIdAndVersion(employee.getId(), version,
+                    employee.getFirstName(), employee.getLastName(), employee.getEmail());
+        }
+
+        if (updated == 0) {
+            // only the failure path pays for the extra lookup to tell a stale version from a missing row
+            if (version != null && exists(employee.getId())) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, employee.getId());
+            }
             throw new ResourceNotFoundException("Employee with id " + employee.getId() + " not found");
         }
+
+        if (shardedEmployeeStore == null) {
+            eventPublisher.publishEvent(EmployeeChangedEvent.updated(employee.getId()));
+        }
+        EmployeeDto updatedEmployeeDto = employeeDto.copyOf();
+        // without a version in the request the new one is read back, so the response still gets its ETag
+        updatedEmployeeDto.setVersion(version != null ? version + 1 : versionOf(employee.getId()));
+        return updatedEmployeeDto;
+    }
+
+    private Long versionOf(long id) {
+        return shardedEmployeeStore != null
+                ? shardedEmployeeStore.findById(id).map(EmployeeDto::getVersion).orElse(null)
+                : employeeRepository.findVersionById(id).orElse(null);
+    }
+
+    private boolean exists(long id) {
+        return shardedEmployeeStore != null ? shardedEmployeeStore.findById(id).isPresent()
+                : employeeRepository.existsById(id);
     }
 
     public Optional<EmployeeDto> readEmployee(Long id) {
-        return EntityDtoUtil.toDto(employeeRepository.findById(id));
+        if (shardedEmployeeStore != null) {
+            return shardedEmployeeStore.findById(id);
+        }
+        if (readsOffHeap()) {
+            return offHeapEmployeeRepository.findDtoById(id);
+        }
+        return employeeCache.getById(id, this::loadById);
+    }
+
+    // concurrent misses of the same id share one load, misses of different ids may share one query
+    private Optional<EmployeeDto> loadById(Long id) {
+        if (!singleFlight) {
+            return queryById(id);
+        }
+        return employeeFlights.load(new ReadKey(ReadGroup.current(), id), key -> queryById(id));
     }
 
+    private Optional<EmployeeDto> queryById(long id) {
+        if (idBatcher != null) {
+            return Optional.ofNullable(idBatcher.load(ReadGroup.current(), id));
+        }
+        return readPrimaryIfCached(() -> employeeRepository.findDtoById(id));
+    }
+
+    // runs on the thread of the first lookup of the batch, see MicroBatcher
+    private Map<Long, EmployeeDto> queryByIds(List<Long> ids) {
+        if (ids.size() == 1) {
+            return readPrimaryIfCached(() -> employeeRepository.findDtoById(ids.get(0)))
+                    .map(employeeDto -> Map.of(employeeDto.getId(), employeeDto))
+                    .orElse(Map.of());
+        }
+        List<EmployeeDto> employeeDtos = readPrimaryIfCached(() -> employeeRepository.findDtosByIdIn(ids));
+        Map<Long, EmployeeDto> employeeDtosById = new HashMap<>(employeeDtos.size() * 2);
+        for (EmployeeDto employeeDto : employeeDtos) {
+            employeeDtosById.put(employeeDto.getId(), employeeDto);
+        }
+        return employeeDtosById;
+    }
+
+    // cache misses read the primary: a row loaded from a lagging replica would be served until it expires
+    private <T> T readPrimaryIfCached(Supplier<T> query) {
+        return employeeCache.isEnabled() ? ReadWriteRouting.onPrimary(query) : query.get();
+    }
+
+    public Optional<EmployeeDto> readEmployeeByEmail(String email) {
+        if (shardedEmployeeStore != null) {
+            return shardedEmployeeStore.findByEmail(email);
+        }
+        if (readsOffHeap()) {
+            return offHeapEmployeeRepository.findDtoByEmail(email);
+        }
+        Optional<EmployeeDto> employeeDto = employeeCache.getIdByEmail(email, this::loadIdByEmail)
+                .flatMap(this::readEmployee);
+        if (employeeDto.isPresent() && email.equals(employeeDto.get().getEmail())) {
+            return employeeDto;
+        }
+        // the cached email -> id entry is stale (employee deleted or email changed): drop it and look up again
+        employeeCache.evictEmail(email);
+        return employeeCache.getIdByEmail(email, this::loadIdByEmail)
+                .flatMap(this::readEmployee)
+                .filter(dto -> email.equals(dto.getEmail()));
+    }
+
+    // the off-heap store follows the change feed: requests pinned to the primary (read-your-writes after a write
+    // with a replica, see ReadYourWritesFilter) read the database
+    private boolean readsOffHeap() {
+        return offHeapEmployeeRepository != null && offHeapEmployeeRepository.isLoaded()
+                && !ReadWriteRouting.isPinnedToPrimary();
+    }
+
+    private Optional<Long> loadIdByEmail(String email) {
+        if (!singleFlight) {
+            return queryIdByEmail(email);
+        }
+        return emailFlights.load(new ReadKey(ReadGroup.current(), email), key -> queryIdByEmail(email));
+    }
+
+    // one query fills both caches
+    private Optional<Long> queryIdByEmail(String email) {
+        return readPrimaryIfCached(() -> employeeRepository.findDtoByEmail(email)).map(employeeDto -> {
+            employeeCache.put(employeeDto);
+            return employeeDto.getId();
+        });
+    }
+
+    @Transactional
     public void deleteEmployee(Long id) {
-        Optional<Employee> employee = employeeRepository.findById(id);
-        if (employee.isPresent()) {
-            employeeRepository.deleteById(id);
-        } else {
+        if (shardedEmployeeStore != null) {
+            if (!shardedEmployeeStore.deleteById(id)) {
+                throw new ResourceNotFoundException("Employee with id " + id + " not found");
+            }
+            return;
+        }
+        if (employeeRepository.deleteEmployeeById(id) == 0) {
             throw new ResourceNotFoundException("Employee with id " + id + " not found");
         }
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
     }
 
+    // the read paths project straight into EmployeeDto, see EmployeeRepository.findAllDtos. They are read-only
+    // transactions, served by the replica when there is one (see ReadWriteRouting)
     public List<EmployeeDto> readAllEmployees() {
-        List<EmployeeDto> dtoList = new ArrayList<>();
-        for (Employee employee : employeeRepository.findAll()) {
-            dtoList.add(EntityDtoUtil.toDto(employee));
+        if (shardedEmployeeStore != null) {
+            return shardedEmployeeStore.findAfter(0, Integer.MAX_VALUE);
         }
-        return dtoList;
+        return employeeRepository.findAllDtos();
+    }
+
+    public List<EmployeeDto> readEmployeesAfter(long afterId, int limit) {
+        if (shardedEmployeeStore != null) {
+            return shardedEmployeeStore.findAfter(afterId, limit);
+        }
+        return employeeRepository.findDtosByIdGreaterThan(afterId, PageRequest.ofSize(limit));
+    }
+
+    // hands every employee to the consumer as it comes off the cursor; each entity is detached right away
+    // so the persistence context does not grow with the table. The shards are read in keyset pages instead
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<EmployeeDto> consumer) {
+        if (shardedEmployeeStore != null) {
+            List<EmployeeDto> page = shardedEmployeeStore.findAfter(0, SHARD_STREAM_PAGE_SIZE);
+            while (!page.isEmpty()) {
+                page.forEach(consumer);
+                page = page.size() < SHARD_STREAM_PAGE_SIZE ? List.of()
+                        : shardedEmployeeStore.findAfter(page.get(page.size() - 1).getId(), SHARD_STREAM_PAGE_SIZE);
+            }
+            return;
+        }
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(EntityDtoUtil.toDto(employee));
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    // lookups only share a query with lookups of the same tenant and routing
+    private record ReadGroup(String tenantId, boolean pinnedToPrimary) {
+
+        static ReadGroup current() {
+            return new ReadGroup(TenantContext.current(), ReadWriteRouting.isPinnedToPrimary());
+        }
+    }
+
+    private record ReadKey(ReadGroup group, Object key) {
     }
 }
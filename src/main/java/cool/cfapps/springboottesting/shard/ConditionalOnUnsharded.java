@@ -0,0 +1,21 @@
+package cool.cfapps.springboottesting.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Only without employees.shards.enabled. Marks the components that read or write the employees table of
+ * spring.datasource directly (batch, import/export, search index, change log): with shards the employees live on
+ * the shards, so these are left out instead of serving a second, diverging set of employees.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ConditionalOnProperty(prefix = "employees.shards", name = "enabled", havingValue = "false", matchIfMissing = true)
+public @interface ConditionalOnUnsharded {
+}
@@ -0,0 +1,51 @@
+package cool.cfapps.springboottesting.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in (employees.shards.enabled=true): a {@link ShardedEmployeeStore} over employees.shards.urls, every
+ * shard with a pool of its own and migrated with the Flyway scripts of its database. EmployeeService picks it up
+ * and keeps its employees there.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "employees.shards", name = "enabled", havingValue = "true")
+public class ShardConfiguration {
+
+    @Bean
+    public ShardedEmployeeStore shardedEmployeeStore(ShardProperties properties) {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < properties.getUrls().size(); shard++) {
+            String url = properties.getUrls().get(shard);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shard);
+            dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration/" + DatabaseDriver.fromJdbcUrl(url).getId())
+                    .load()
+                    .migrate();
+            dataSources.add(dataSource);
+        }
+        return new ShardedEmployeeStore(dataSources,
+                new SnowflakeIdGenerator(properties.getWorkerId(), Clock.systemUTC()),
+                Executors.newFixedThreadPool(properties.getFanOutThreads(),
+                        new CustomizableThreadFactory("shard-fan-out-")));
+    }
+}
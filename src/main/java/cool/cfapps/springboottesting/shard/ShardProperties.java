@@ -0,0 +1,23 @@
+package cool.cfapps.springboottesting.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "employees.shards")
+public class ShardProperties {
+
+    private boolean enabled = false;
+    // one JDBC url per shard; the order is the shard number, adding or reordering shards moves employees
+    private List<String> urls = new ArrayList<>();
+    private String username;
+    private String password;
+    private int maximumPoolSize = 5;
+    // unique per application instance, 0..31
+    private int workerId = 0;
+    // threads running the per-shard queries of a fan-out
+    private int fanOutThreads = 8;
+}
@@ -0,0 +1,184 @@
+package cool.cfapps.springboottesting.shard;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Employees spread over several databases with the employees table each (the Flyway schema).
+ * <p>
+ * An employee lives on the shard picked by the hash of its id; ids are {@link SnowflakeIdGenerator snowflake ids},
+ * so they are unique across shards without a shared sequence. Lookups by id go to one shard, everything else is
+ * sent to all shards in parallel: pages are keyset pages by id on every shard, merged by id and cut to the limit,
+ * so a page costs one query per shard however deep it is.
+ * <p>
+ * Every statement is restricted to the current tenant ({@link TenantContext}, taken on the calling thread before
+ * the fan-out). The email is only unique per shard: a unique email across shards needs a lookup table sharded by
+ * email.
+ */
+public class ShardedEmployeeStore implements AutoCloseable {
+
+    private static final String COLUMNS =
+            "SELECT id, first_name, last_name, email, version FROM employees WHERE tenant_id = ?";
+    private static final RowMapper<EmployeeDto> EMPLOYEE = (rs, rowNum) -> new EmployeeDto(rs.getLong(1),
+            rs.getString(2), rs.getString(3), rs.getString(4), rs.getObject(5, Long.class));
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final SnowflakeIdGenerator idGenerator;
+    private final ExecutorService fanOutExecutor;
+
+    public ShardedEmployeeStore(List<? extends DataSource> dataSources, SnowflakeIdGenerator idGenerator,
+                                ExecutorService fanOutExecutor) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.dataSources = List.copyOf(dataSources);
+        this.shards = this.dataSources.stream().map(JdbcTemplate::new).toList();
+        this.idGenerator = idGenerator;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    // the low bits of a snowflake id are the sequence, mostly 0 at low load: mixed first (murmur3 finalizer)
+    public int shardOf(long id) {
+        long hash = id;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) shards.size());
+    }
+
+    public EmployeeDto create(EmployeeDto employeeDto) {
+        long id = idGenerator.nextId();
+        shard(id).update("INSERT INTO employees (id, first_name, last_name, email, version, tenant_id) " +
+                        "VALUES (?, ?, ?, ?, 0, ?)",
+                id, employeeDto.getFirstName(), employeeDto.getLastName(), employeeDto.getEmail(),
+                TenantContext.current());
+        return new EmployeeDto(id, employeeDto.getFirstName(), employeeDto.getLastName(), employeeDto.getEmail(), 0L);
+    }
+
+    public Optional<EmployeeDto> findById(long id) {
+        return shard(id).query(COLUMNS + " AND id = ?", EMPLOYEE, TenantContext.current(), id).stream().findFirst();
+    }
+
+    // true if updated; with a version only that version is updated
+    public boolean update(EmployeeDto employeeDto) {
+        Long version = employeeDto.getVersion();
+        JdbcTemplate shard = shard(employeeDto.getId());
+        int updated = version == null
+                ? shard.update("UPDATE employees SET first_name = ?, last_name = ?, email = ?, " +
+                        "version = COALESCE(version, 0) + 1 WHERE id = ? AND tenant_id = ?",
+                employeeDto.getFirstName(), employeeDto.getLastName(), employeeDto.getEmail(), employeeDto.getId(),
+                TenantContext.current())
+                : shard.update("UPDATE employees SET first_name = ?, last_name = ?, email = ?, version = version + 1 " +
+                        "WHERE id = ? AND tenant_id = ? AND version = ?",
+                employeeDto.getFirstName(), employeeDto.getLastName(), employeeDto.getEmail(), employeeDto.getId(),
+                TenantContext.current(), version);
+        return updated > 0;
+    }
+
+    public boolean deleteById(long id) {
+        return shard(id).update("DELETE FROM employees WHERE id = ? AND tenant_id = ?",
+                id, TenantContext.current()) > 0;
+    }
+
+    public Optional<EmployeeDto> findByEmail(String email) {
+        String tenantId = TenantContext.current();
+        return fanOut(shard -> shard.query(COLUMNS + " AND email = ?", EMPLOYEE, tenantId, email)).stream()
+                .flatMap(List::stream)
+                .findFirst();
+    }
+
+    // keyset page over all shards: the employees with an id greater than afterId, in id order
+    public List<EmployeeDto> findAfter(long afterId, int limit) {
+        String tenantId = TenantContext.current();
+        return merge(fanOut(shard -> shard.query(COLUMNS + " AND id > ? ORDER BY id LIMIT ?",
+                EMPLOYEE, tenantId, afterId, limit)), limit);
+    }
+
+    public List<EmployeeDto> findByName(String firstName, String lastName, long afterId, int limit) {
+        String tenantId = TenantContext.current();
+        return merge(fanOut(shard -> shard.query(COLUMNS + " AND last_name = ? AND first_name = ? AND id > ? " +
+                "ORDER BY id LIMIT ?", EMPLOYEE, tenantId, lastName, firstName, afterId, limit)), limit);
+    }
+
+    public long count() {
+        String tenantId = TenantContext.current();
+        return fanOut(shard -> shard.queryForObject("SELECT COUNT(*) FROM employees WHERE tenant_id = ?",
+                Long.class, tenantId)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    private JdbcTemplate shard(long id) {
+        return shards.get(shardOf(id));
+    }
+
+    // runs the query on every shard at the same time, the results in shard order
+    private <T> List<T> fanOut(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> results = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), fanOutExecutor))
+                .toList();
+        try {
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    // k-way merge of the id ordered shard pages
+    private static List<EmployeeDto> merge(List<List<EmployeeDto>> pages, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparingLong(head -> head.employee.getId()));
+        for (List<EmployeeDto> page : pages) {
+            Iterator<EmployeeDto> iterator = page.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+        List<EmployeeDto> merged = new ArrayList<>(Math.min(limit, pages.stream().mapToInt(List::size).sum()));
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            merged.add(head.employee);
+            if (head.rest.hasNext()) {
+                heads.add(new Head(head.rest.next(), head.rest));
+            }
+        }
+        return merged;
+    }
+
+    private record Head(EmployeeDto employee, Iterator<EmployeeDto> rest) {
+    }
+
+    @Override
+    public void close() throws Exception {
+        fanOutExecutor.shutdown();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package cool.cfapps.springboottesting.tenant;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tenants share the tables, every row carries its tenant_id and Hibernate adds the tenant restriction to the
+ * queries of the Employee entity ({@link TenantIdentifierResolver}, set as
+ * spring.jpa.properties.hibernate.tenant_identifier_resolver). The JDBC code (export, change log) filters by
+ * hand.
+ */
+@Configuration
+public class TenantConfiguration {
+
+    @Bean
+    public TenantScheduler tenantScheduler(TenantProperties properties) {
+        return new TenantScheduler(properties.getMaxConcurrentRequests(),
+                properties.getMaxConcurrentRequestsPerTenant(), properties::weightOf);
+    }
+
+    // a stream can run for minutes: kept apart so streams never hold the slots of the short requests
+    @Bean
+    public TenantFilter tenantFilter(TenantProperties properties, TenantScheduler tenantScheduler,
+                                     MeterRegistry meterRegistry) {
+        TenantScheduler streamScheduler = new TenantScheduler(properties.getMaxConcurrentStreams(),
+                properties.getMaxConcurrentStreams(), properties::weightOf);
+        return new TenantFilter(properties, tenantScheduler, streamScheduler, meterRegistry);
+    }
+
+    @Bean
+    public TenantTaskDecorator tenantTaskDecorator() {
+        return new TenantTaskDecorator();
+    }
+
+    // the tenant tag comes from a request header
+    @Bean
+    public MeterFilter tenantTagLimit(TenantProperties properties) {
+        return MeterFilter.maximumAllowableTags("employees.tenant", "tenant", properties.getMaxTaggedTenants(),
+                MeterFilter.deny());
+    }
+}
@@ -0,0 +1,65 @@
+package cool.cfapps.springboottesting.tenant;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The tenant the current thread works for: set per request by {@link TenantFilter}, carried over to the async
+ * and background threads by {@link TenantTaskDecorator} and {@link #wrap(Runnable)}. Outside of that the
+ * {@link #DEFAULT_TENANT} is used, which also owns all rows written before tenants existed.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenantId = CURRENT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+
+    public static boolean isValid(String tenantId) {
+        return tenantId != null && TENANT_ID.matcher(tenantId).matches();
+    }
+
+    public static Scope open(String tenantId) {
+        if (!isValid(tenantId)) {
+            throw new IllegalArgumentException("Invalid tenant id: " + tenantId);
+        }
+        String previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public static <T> T call(String tenantId, Supplier<T> work) {
+        try (Scope ignored = open(tenantId)) {
+            return work.get();
+        }
+    }
+
+    // runs the task for the tenant current at the time of wrapping
+    public static Runnable wrap(Runnable task) {
+        String tenantId = current();
+        return () -> {
+            try (Scope ignored = open(tenantId)) {
+                task.run();
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,128 @@
+package cool.cfapps.springboottesting.tenant;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Resolves the tenant of an employee API request from the tenant header (none: the default tenant, invalid:
+ * 400) and runs the request inside its {@link TenantContext} once the {@link TenantScheduler} admitted it.
+ * A request that is not admitted within the queue timeout answers 429 with Retry-After.
+ * <p>
+ * The time in the queue and the request time are recorded per tenant (employees.tenant.queue,
+ * employees.tenant.requests). Async requests (the streaming endpoint) keep their slot until they complete, so the
+ * stream paths are admitted by a scheduler of their own (employees.tenants.max-concurrent-streams).
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TenantProperties properties;
+    private final TenantScheduler scheduler;
+    private final TenantScheduler streamScheduler;
+    private final MeterRegistry meterRegistry;
+
+    public TenantFilter(TenantProperties properties, TenantScheduler scheduler, TenantScheduler streamScheduler,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.streamScheduler = streamScheduler;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(properties.getHeader());
+        String tenantId = header == null ? TenantContext.DEFAULT_TENANT : header;
+        // responses differ per tenant, shared caches must not mix them up
+        response.addHeader(HttpHeaders.VARY, properties.getHeader());
+        if (!TenantContext.isValid(tenantId)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + properties.getHeader());
+            return;
+        }
+
+        long queued = System.nanoTime();
+        TenantScheduler.Permit permit;
+        try {
+            permit = schedulerOf(request).acquire(tenantId, properties.getQueueTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        long admitted = System.nanoTime();
+        timer("employees.tenant.queue", tenantId, permit != null ? "admitted" : "rejected")
+                .record(Duration.ofNanos(admitted - queued));
+        if (permit == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, properties.getQueueTimeout().toSeconds())));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+
+        Timer requests = timer("employees.tenant.requests", tenantId, null);
+        try (TenantContext.Scope ignored = TenantContext.open(tenantId)) {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(permit, requests, admitted));
+            } else {
+                permit.close();
+                requests.record(Duration.ofNanos(System.nanoTime() - admitted));
+            }
+        }
+    }
+
+    private TenantScheduler schedulerOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getStreamPaths().contains(path) ? streamScheduler : scheduler;
+    }
+
+    private Timer timer(String name, String tenantId, String outcome) {
+        Timer.Builder timer = Timer.builder(name).tag("tenant", tenantId);
+        if (outcome != null) {
+            timer.tag("outcome", outcome);
+        }
+        return timer.register(meterRegistry);
+    }
+
+    private record ReleasingAsyncListener(TenantScheduler.Permit permit, Timer requests, long admitted)
+            implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.close();
+            requests.record(Duration.ofNanos(System.nanoTime() - admitted));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package cool.cfapps.springboottesting.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+// hibernate.tenant_identifier_resolver (application.properties, so the JPA test slices have it as well). The
+// tenant of a Hibernate session is taken when it is opened, i.e. at the start of the transaction
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
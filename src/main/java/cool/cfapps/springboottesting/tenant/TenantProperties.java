@@ -0,0 +1,37 @@
+package cool.cfapps.springboottesting.tenant;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "employees.tenants")
+public class TenantProperties {
+
+    // requests without the header work on TenantContext.DEFAULT_TENANT
+    private String header = "X-Tenant-Id";
+    // employee API requests in progress over all tenants, about the connection pool size
+    private int maxConcurrentRequests = 10;
+    // cap per tenant, so one tenant never holds every connection
+    private int maxConcurrentRequestsPerTenant = 8;
+    // requests to these paths (after the context path) hold their connection until the response is written, they
+    // are admitted against max-concurrent-streams instead of max-concurrent-requests
+    private List<String> streamPaths = new ArrayList<>(List.of("/api/v1/employees/stream"));
+    // streams in progress over all tenants, admitted with the same weights
+    private int maxConcurrentStreams = 2;
+    // longer in the queue: 429 Too Many Requests
+    private Duration queueTimeout = Duration.ofSeconds(2);
+    // share of a tenant when requests queue up, tenants not listed have weight 1
+    private Map<String, Integer> weights = new HashMap<>();
+    // distinct tenant tag values on the tenant meters, the meters of further tenants are dropped
+    private int maxTaggedTenants = 200;
+
+    public int weightOf(String tenantId) {
+        return Math.max(1, weights.getOrDefault(tenantId, 1));
+    }
+}
@@ -0,0 +1,191 @@
+package cool.cfapps.springboottesting.tenant;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Weighted fair admission of requests per tenant (stride scheduling): at most maxConcurrent requests run over
+ * all tenants and maxPerTenant per tenant. When requests queue up, a free slot goes to the waiting tenant with
+ * the lowest pass; every admission advances the pass of its tenant by STRIDE / weight, so a tenant of weight 2
+ * gets twice the slots of a tenant of weight 1, however many requests each of them sends. A tenant that was
+ * idle starts at the pass of the last admission instead of catching up on the slots it did not use.
+ * Requests of the same tenant are admitted in arrival order.
+ */
+public class TenantScheduler {
+
+    private static final long STRIDE = 1 << 20;
+
+    private final int maxConcurrent;
+    private final int maxPerTenant;
+    private final ToIntFunction<String> weights;
+    private final ReentrantLock lock = new ReentrantLock();
+    // tenants with running or waiting requests
+    private final Map<String, TenantQueue> tenants = new HashMap<>();
+    private int running;
+    private long virtualTime;
+
+    public TenantScheduler(int maxConcurrent, int maxPerTenant, ToIntFunction<String> weights) {
+        if (maxConcurrent < 1 || maxPerTenant < 1) {
+            throw new IllegalArgumentException("maxConcurrent and maxPerTenant must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxPerTenant = Math.min(maxPerTenant, maxConcurrent);
+        this.weights = weights;
+    }
+
+    /**
+     * Waits up to the timeout for a slot of the tenant, null if there was none. The permit must be closed.
+     */
+    @Nullable
+    public Permit acquire(String tenantId, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            TenantQueue tenant = tenants.computeIfAbsent(tenantId, TenantQueue::new);
+            if (tenant.running == 0 && tenant.waiting.isEmpty()) {
+                tenant.pass = Math.max(tenant.pass, virtualTime);
+            }
+            // waiting requests of other tenants are blocked by their own cap, else they had been admitted
+            if (running < maxConcurrent && tenant.running < maxPerTenant && tenant.waiting.isEmpty()) {
+                admit(tenant);
+                return new Permit(tenant);
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            tenant.waiting.addLast(waiter);
+            try {
+                while (!waiter.admitted) {
+                    if (remaining <= 0) {
+                        tenant.waiting.remove(waiter);
+                        removeIfIdle(tenant);
+                        return null;
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.admitted) {
+                    release(tenant);
+                } else {
+                    tenant.waiting.remove(waiter);
+                    removeIfIdle(tenant);
+                }
+                throw e;
+            }
+            return new Permit(tenant);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int running() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int running(String tenantId) {
+        return count(tenantId, false);
+    }
+
+    public int waiting(String tenantId) {
+        return count(tenantId, true);
+    }
+
+    private int count(String tenantId, boolean waiting) {
+        lock.lock();
+        try {
+            TenantQueue tenant = tenants.get(tenantId);
+            return tenant == null ? 0 : waiting ? tenant.waiting.size() : tenant.running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admit(TenantQueue tenant) {
+        running++;
+        tenant.running++;
+        virtualTime = tenant.pass;
+        tenant.pass += STRIDE / Math.max(1, weights.applyAsInt(tenant.tenantId));
+    }
+
+    private void release(TenantQueue tenant) {
+        running--;
+        tenant.running--;
+        while (running < maxConcurrent) {
+            TenantQueue next = null;
+            for (TenantQueue candidate : tenants.values()) {
+                if (!candidate.waiting.isEmpty() && candidate.running < maxPerTenant
+                        && (next == null || candidate.pass < next.pass)) {
+                    next = candidate;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            Waiter waiter = next.waiting.removeFirst();
+            waiter.admitted = true;
+            admit(next);
+            waiter.condition.signal();
+        }
+        removeIfIdle(tenant);
+    }
+
+    private void removeIfIdle(TenantQueue tenant) {
+        if (tenant.running == 0 && tenant.waiting.isEmpty()) {
+            tenants.remove(tenant.tenantId);
+        }
+    }
+
+    private static final class TenantQueue {
+        private final String tenantId;
+        private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+        private int running;
+        private long pass;
+
+        private TenantQueue(String tenantId) {
+            this.tenantId = tenantId;
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean admitted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final TenantQueue tenant;
+        private boolean closed;
+
+        private Permit(TenantQueue tenant) {
+            this.tenant = tenant;
+        }
+
+        // idempotent, the async listener and the filter may both close it
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    release(tenant);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
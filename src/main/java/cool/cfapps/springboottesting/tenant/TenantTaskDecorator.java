@@ -0,0 +1,12 @@
+package cool.cfapps.springboottesting.tenant;
+
+import org.springframework.core.task.TaskDecorator;
+
+// picked up by the Spring Boot task executor builder: async request processing runs for the request's tenant
+public class TenantTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return TenantContext.wrap(runnable);
+    }
+}
@@ -3,47 +3,70 @@ package cool.cfapps.springboottesting.util;
 import cool.cfapps.springboottesting.dto.CreateEmployeeDto;
 import cool.cfapps.springboottesting.dto.EmployeeDto;
 import cool.cfapps.springboottesting.entity.Employee;
+import cool.cfapps.springboottesting.reactive.EmployeeRow;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+// mappers call the all-args constructors directly, no builder is allocated per mapped object
 public class EntityDtoUtil {
 
     public static EmployeeDto toDto(Employee employee) {
-        return EmployeeDto.builder()
-                .id(employee.getId())
-                .firstName(employee.getFirstName())
-                .lastName(employee.getLastName())
-                .email(employee.getEmail())
-                .build();
+        return new EmployeeDto(
+                employee.getId(),
+                employee.getFirstName(),
+                employee.getLastName(),
+                employee.getEmail(),
+                employee.getVersion());
     }
 
     public static Employee toEntity(EmployeeDto employeeDto) {
-        return Employee.builder()
-                .id(employeeDto.getId())
-                .firstName(employeeDto.getFirstName())
-                .lastName(employeeDto.getLastName())
-                .email(employeeDto.getEmail())
-                .build();
+        return new Employee(
+                employeeDto.getId(),
+                employeeDto.getFirstName(),
+                employeeDto.getLastName(),
+                employeeDto.getEmail(),
+                employeeDto.getVersion());
     }
 
     public static Optional<EmployeeDto> toDto(Optional<Employee> employee) {
-        if (employee.isEmpty()) return Optional.empty();
-
-        return Optional.of(
-                EmployeeDto.builder()
-                        .id(employee.get().getId())
-                        .firstName(employee.get().getFirstName())
-                        .lastName(employee.get().getLastName())
-                        .email(employee.get().getEmail())
-                        .build());
+        return employee.map(EntityDtoUtil::toDto);
     }
 
     public static EmployeeDto toDto(CreateEmployeeDto createEmployeeDto) {
-        return EmployeeDto.builder()
-                .id(0L)
-                .firstName(createEmployeeDto.getFirstName())
-                .lastName(createEmployeeDto.getLastName())
-                .email(createEmployeeDto.getEmail())
-                .build();
+        return new EmployeeDto(
+                0L,
+                createEmployeeDto.getFirstName(),
+                createEmployeeDto.getLastName(),
+                createEmployeeDto.getEmail(),
+                null);
+    }
+
+    public static List<EmployeeDto> toDtoList(List<Employee> employees) {
+        List<EmployeeDto> dtoList = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            dtoList.add(toDto(employee));
+        }
+        return dtoList;
+    }
+
+    public static EmployeeDto toDto(EmployeeRow employeeRow) {
+        return new EmployeeDto(
+                employeeRow.getId(),
+                employeeRow.getFirstName(),
+                employeeRow.getLastName(),
+                employeeRow.getEmail(),
+                employeeRow.getVersion());
+    }
+
+    public static EmployeeRow toRow(EmployeeDto employeeDto) {
+        return new EmployeeRow(
+                employeeDto.getId(),
+                employeeDto.getFirstName(),
+                employeeDto.getLastName(),
+                employeeDto.getEmail(),
+                employeeDto.getVersion(),
+                null);
     }
 }
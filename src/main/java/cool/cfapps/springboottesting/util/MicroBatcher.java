@@ -0,0 +1,101 @@
+package cool.cfapps.springboottesting.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Merges single key loads into one query for many keys. Loads only wait for others while a query is already
+ * running: the first load of a batch (the leader) then collects keys for up to the window, or until
+ * maxBatchSize keys are in, and runs the query for all of them on its own thread. Without a query in progress
+ * a load runs right away, so a quiet service pays no extra latency.
+ * <p>
+ * Batches are kept apart by group: the leader runs the query with its own thread state (tenant, routing), so
+ * only loads with the same group may share it.
+ */
+public class MicroBatcher<K, V> {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Function<List<K>, Map<K, V>> query;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Object, Batch> open = new HashMap<>();
+    private int running;
+
+    public MicroBatcher(Duration window, int maxBatchSize, Function<List<K>, Map<K, V>> query) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.query = query;
+    }
+
+    // null if the query had no value for the key
+    public V load(Object group, K key) {
+        Batch batch = null;
+        boolean leader = false;
+        lock.lock();
+        try {
+            batch = open.get(group);
+            leader = batch == null;
+            if (leader) {
+                batch = new Batch(lock.newCondition());
+                if (running > 0 && maxBatchSize > 1) {
+                    open.put(group, batch);
+                }
+            }
+            batch.keys.add(key);
+            if (batch.keys.size() >= maxBatchSize && open.remove(group, batch)) {
+                batch.full.signal();
+            }
+            if (leader) {
+                long remaining = windowNanos;
+                while (open.get(group) == batch && remaining > 0) {
+                    remaining = batch.full.awaitNanos(remaining);
+                }
+                open.remove(group, batch);
+                running++;
+            }
+        } catch (InterruptedException e) {
+            // only the leader waits: close the batch and run it right away
+            open.remove(group, batch);
+            running++;
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        if (!leader) {
+            return SingleFlight.join(batch.result).get(key);
+        }
+        try {
+            Map<K, V> values = query.apply(List.copyOf(batch.keys));
+            batch.result.complete(values);
+            return values.get(key);
+        } catch (RuntimeException | Error e) {
+            batch.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            lock.lock();
+            try {
+                running--;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final class Batch {
+        private final Set<K> keys = new LinkedHashSet<>();
+        private final CompletableFuture<Map<K, V>> result = new CompletableFuture<>();
+        private final Condition full;
+
+        private Batch(Condition full) {
+            this.full = full;
+        }
+    }
+}
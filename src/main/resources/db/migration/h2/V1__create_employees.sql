@@ -0,0 +1,17 @@
+-- ids are handed out by Hibernate in blocks of 50 (pooled-lo)
+CREATE SEQUENCE employees_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE employees
+(
+    id         BIGINT       NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    version    BIGINT,
+    CONSTRAINT pk_employees PRIMARY KEY (id)
+);
+
+-- findByEmail
+CREATE UNIQUE INDEX ux_employees_email ON employees (email);
+-- findByJPQL, findByJPQLNamedParams, findByNativeSql, findByNativeSqlNamedParams
+CREATE INDEX ix_employees_last_name_first_name ON employees (last_name, first_name);
@@ -0,0 +1,25 @@
+-- transactional outbox: one row per employee change, written in the transaction of the change.
+-- seq is assigned by the relay in publication order (NULL = not yet relayed), consumers read the rows by seq
+CREATE TABLE employee_changes
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    seq         BIGINT,
+    employee_id BIGINT      NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    changed_at  TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_employee_changes PRIMARY KEY (id)
+);
+
+-- GET /api/v1/employees/changes?since=<seq> and the relay (seq IS NULL)
+CREATE UNIQUE INDEX ux_employee_changes_seq ON employee_changes (seq);
+
+-- single row, locked by the relay: the last assigned seq and the highest seq removed after the retention
+CREATE TABLE employee_change_relay
+(
+    id         INT    NOT NULL,
+    last_seq   BIGINT NOT NULL,
+    purged_seq BIGINT NOT NULL,
+    CONSTRAINT pk_employee_change_relay PRIMARY KEY (id)
+);
+
+INSERT INTO employee_change_relay VALUES (1, 0, 0);
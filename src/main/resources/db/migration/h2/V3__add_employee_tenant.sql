@@ -0,0 +1,8 @@
+-- discriminator of the tenant owning the row, the existing rows belong to the default tenant
+ALTER TABLE employees ADD COLUMN tenant_id VARCHAR(64) DEFAULT 'default' NOT NULL;
+-- every employee query is scoped to one tenant, keyset pages seek by id within it
+CREATE INDEX ix_employees_tenant_id_id ON employees (tenant_id, id);
+
+-- the change feed of one tenant
+ALTER TABLE employee_changes ADD COLUMN tenant_id VARCHAR(64) DEFAULT 'default' NOT NULL;
+CREATE INDEX ix_employee_changes_tenant_id_seq ON employee_changes (tenant_id, seq);
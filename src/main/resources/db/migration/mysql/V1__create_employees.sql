@@ -0,0 +1,22 @@
+-- MySQL has no sequences, Hibernate emulates employees_seq with a single row table
+CREATE TABLE employees_seq
+(
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO employees_seq VALUES (1);
+
+CREATE TABLE employees
+(
+    id         BIGINT       NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    version    BIGINT,
+    CONSTRAINT pk_employees PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- findByEmail
+CREATE UNIQUE INDEX ux_employees_email ON employees (email);
+-- findByJPQL, findByJPQLNamedParams, findByNativeSql, findByNativeSqlNamedParams
+CREATE INDEX ix_employees_last_name_first_name ON employees (last_name, first_name);
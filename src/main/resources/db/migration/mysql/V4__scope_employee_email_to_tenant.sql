@@ -0,0 +1,4 @@
+-- emails are unique per tenant: two tenants may each have an employee with the same email.
+-- findByEmail is always scoped to the current tenant, so the index leads with tenant_id
+CREATE UNIQUE INDEX ux_employees_tenant_id_email ON employees (tenant_id, email);
+DROP INDEX ux_employees_email ON employees;
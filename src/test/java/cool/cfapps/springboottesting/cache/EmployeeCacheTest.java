@@ -0,0 +1,117 @@
+package cool.cfapps.springboottesting.cache;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeCacheTest {
+
+    private InMemoryCacheInvalidationChannel channel;
+    private EmployeeDto employeeDto;
+
+    @BeforeEach
+    public void setUp() {
+        channel = new InMemoryCacheInvalidationChannel();
+        employeeDto = EmployeeDto.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john@doe.com")
+                .version(0L)
+                .build();
+    }
+
+    private EmployeeCache newCache(EmployeeCacheProperties.Mode mode) {
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setMode(mode);
+        return new EmployeeCache(properties, channel);
+    }
+
+    // JUnit Test for cache hits and misses
+    @DisplayName("JUnit Test for cache hits and misses")
+    @Test
+    public void givenEmptyCache_whenReadTwice_thenLoadOnceAndRecordStats() {
+        // given - precondition ot setup
+        EmployeeCache cache = newCache(EmployeeCacheProperties.Mode.LOCAL);
+        AtomicInteger loads = new AtomicInteger();
+
+        // when - action or the behaviour that we are going to test
+        cache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(employeeDto);
+        });
+        Optional<EmployeeDto> cached = cache.getById(1L, id -> Optional.empty());
+
+        // then - verify the output
+        assertThat(cached).contains(employeeDto);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.stats().get("employeesById").hits()).isEqualTo(1);
+        assertThat(cache.stats().get("employeesById").misses()).isEqualTo(1);
+    }
+
+    // JUnit Test for near cache invalidation between instances
+    @DisplayName("JUnit Test for near cache invalidation between instances")
+    @Test
+    public void givenTwoNearCaches_whenOneIsInvalidated_thenTheOtherIsInvalidatedToo() {
+        // given - precondition ot setup
+        EmployeeCache nodeOne = newCache(EmployeeCacheProperties.Mode.NEAR);
+        EmployeeCache nodeTwo = newCache(EmployeeCacheProperties.Mode.NEAR);
+        nodeOne.put(employeeDto);
+        nodeTwo.put(employeeDto);
+
+        // when - action or the behaviour that we are going to test
+        nodeOne.onEmployeeChanged(EmployeeChangedEvent.updated(1L));
+
+        // then - verify the output
+        assertThat(nodeOne.getById(1L, id -> Optional.empty())).isEmpty();
+        assertThat(nodeTwo.getById(1L, id -> Optional.empty())).isEmpty();
+    }
+
+    // JUnit Test for local cache invalidation staying local
+    @DisplayName("JUnit Test for local cache invalidation staying local")
+    @Test
+    public void givenTwoLocalCaches_whenOneIsInvalidated_thenTheOtherKeepsItsEntry() {
+        // given - precondition ot setup
+        EmployeeCache nodeOne = newCache(EmployeeCacheProperties.Mode.LOCAL);
+        EmployeeCache nodeTwo = newCache(EmployeeCacheProperties.Mode.LOCAL);
+        nodeOne.put(employeeDto);
+        nodeTwo.put(employeeDto);
+
+        // when - action or the behaviour that we are going to test
+        nodeOne.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+
+        // then - verify the output
+        assertThat(nodeOne.getById(1L, id -> Optional.empty())).isEmpty();
+        assertThat(nodeTwo.getById(1L, id -> Optional.empty())).contains(employeeDto);
+    }
+
+    // JUnit Test for the same email in two tenants
+    @DisplayName("JUnit Test for the same email in two tenants")
+    @Test
+    public void givenSameEmailInTwoTenants_whenGetIdByEmail_thenEveryTenantKeepsItsOwnEntry() {
+        // given - precondition ot setup
+        EmployeeCache cache = newCache(EmployeeCacheProperties.Mode.LOCAL);
+        TenantContext.call("tenant-a", () -> cache.getIdByEmail("john@doe.com", email -> Optional.of(1L)));
+        TenantContext.call("tenant-b", () -> cache.getIdByEmail("john@doe.com", email -> Optional.of(2L)));
+
+        // when - action or the behaviour that we are going to test
+        Optional<Long> idOfA = TenantContext.call("tenant-a",
+                () -> cache.getIdByEmail("john@doe.com", email -> Optional.empty()));
+        Optional<Long> idOfB = TenantContext.call("tenant-b",
+                () -> cache.getIdByEmail("john@doe.com", email -> Optional.empty()));
+
+        // then - verify the output
+        assertThat(idOfA).contains(1L);
+        assertThat(idOfB).contains(2L);
+        assertThat(cache.stats().get("idsByEmail").hits()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,47 @@
+package cool.cfapps.springboottesting.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionLimitingDataSourceTest {
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:limited;DB_CLOSE_DELAY=-1");
+        dataSource = new ConnectionLimitingDataSource(h2, 1, Duration.ofMillis(50));
+    }
+
+    // JUnit Test for connection permits
+    @DisplayName("JUnit Test for connection permits")
+    @Test
+    public void givenAllPermitsInUse_whenGetConnection_thenTimeOutUntilConnectionIsClosed() throws SQLException {
+        // given - precondition ot setup
+        Connection connection = dataSource.getConnection();
+
+        // when - action or the behaviour that we are going to test
+        Assertions.assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        connection.close();
+        connection.close();
+
+        // then - verify the output
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        try (Connection next = dataSource.getConnection()) {
+            assertThat(next.isValid(1)).isTrue();
+        }
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+}
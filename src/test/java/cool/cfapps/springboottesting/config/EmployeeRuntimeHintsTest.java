@@ -0,0 +1,56 @@
+package cool.cfapps.springboottesting.config;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.tenant.TenantIdentifierResolver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBindingProcessor;
+
+import java.util.concurrent.Executors;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.aot.hint.predicate.RuntimeHintsPredicates.reflection;
+import static org.springframework.aot.hint.predicate.RuntimeHintsPredicates.resource;
+
+class EmployeeRuntimeHintsTest {
+
+    // JUnit Test for the hints the native image needs beyond the bean definitions
+    @DisplayName("JUnit Test for the hints the native image needs beyond the bean definitions")
+    @Test
+    public void givenRegistrar_whenRegisterHints_thenMigrationsResolverAndExecutorAreCovered() throws Exception {
+        // given - precondition ot setup
+        RuntimeHints hints = new RuntimeHints();
+
+        // when - action or the behaviour that we are going to test
+        new EmployeeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // then - verify the output
+        assertThat(resource().forResource("db/migration/h2/V1__create_employees.sql")).accepts(hints);
+        assertThat(resource().forResource("db/migration/mysql/V3__add_employee_tenant.sql")).accepts(hints);
+        assertThat(reflection().onType(TenantIdentifierResolver.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS))
+                .accepts(hints);
+        // Java 21 API, checked on the hint itself so the test runs on Java 17 as well
+        assertThat(hints.reflection().getTypeHint(Executors.class).methods())
+                .anyMatch(method -> method.getName().equals("newVirtualThreadPerTaskExecutor"));
+    }
+
+    // JUnit Test for the DTOs registered for Jackson binding
+    @DisplayName("JUnit Test for the DTOs registered for Jackson binding")
+    @Test
+    public void givenNativeConfiguration_whenProcessBindingHints_thenDtoAccessorsAreCovered() throws Exception {
+        // given - precondition ot setup
+        RuntimeHints hints = new RuntimeHints();
+
+        // when - action or the behaviour that we are going to test
+        new RegisterReflectionForBindingProcessor().registerReflectionHints(hints.reflection(),
+                NativeConfiguration.class);
+
+        // then - verify the output
+        assertThat(reflection().onMethod(EmployeeDto.class.getMethod("getFirstName"))).accepts(hints);
+        assertThat(reflection().onMethod(EmployeeDto.class.getMethod("setEmail", String.class))).accepts(hints);
+    }
+}
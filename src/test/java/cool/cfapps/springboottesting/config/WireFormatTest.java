@@ -0,0 +1,128 @@
+package cool.cfapps.springboottesting.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnknownFieldSet;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:wireformattest;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class WireFormatTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("DELETE FROM employees");
+        jdbcTemplate.update("INSERT INTO employees (id, first_name, last_name, email, version) VALUES " +
+                "(900001, 'John', 'Doe', 'john@doe.com', 0), (900002, 'J\u00fcrgen', 'M\u00fcller', 'jm@doe.com', 3)");
+    }
+
+    // JUnit Test for the employee list as protobuf
+    @DisplayName("JUnit Test for the employee list as protobuf")
+    @Test
+    public void givenEmployees_whenAcceptProtobuf_thenReturnEmployeeListMessage() throws Exception {
+        // given - precondition ot setup
+        MediaType protobuf = EmployeeProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+
+        // when - action or the behaviour that we are going to test
+        byte[] body = mockMvc.perform(get("/api/v1/employees").accept(protobuf))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(protobuf))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then - verify the output
+        // decoded with protobuf's schema-less parser, independent of the converter
+        List<ByteString> employees = UnknownFieldSet.parseFrom(body).getField(1).getLengthDelimitedList();
+        assertThat(employees).hasSize(2);
+        UnknownFieldSet second = UnknownFieldSet.parseFrom(employees.get(1));
+        assertThat(second.getField(1).getVarintList()).containsExactly(900002L);
+        assertThat(second.getField(2).getLengthDelimitedList().get(0).toStringUtf8()).isEqualTo("J\u00fcrgen");
+        assertThat(second.getField(3).getLengthDelimitedList().get(0).toStringUtf8()).isEqualTo("M\u00fcller");
+        assertThat(second.getField(4).getLengthDelimitedList().get(0).toStringUtf8()).isEqualTo("jm@doe.com");
+        assertThat(second.getField(5).getVarintList()).containsExactly(3L);
+        // version 0 is present (optional field), id 0 would not be
+        assertThat(UnknownFieldSet.parseFrom(employees.get(0)).getField(5).getVarintList()).containsExactly(0L);
+    }
+
+    // JUnit Test for creating an employee from protobuf and reading it as Smile and CBOR
+    @DisplayName("JUnit Test for creating an employee from protobuf and reading it as Smile and CBOR")
+    @Test
+    public void givenCreateEmployeeMessage_whenCreate_thenReadAsSmileAndCbor() throws Exception {
+        // given - precondition ot setup
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(message);
+        out.writeString(1, "Ann");
+        out.writeString(2, "Smith");
+        out.writeString(3, "ann@doe.com");
+        out.writeString(99, "unknown fields are skipped");
+        out.flush();
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(post("/api/v1/employees")
+                        .contentType(EmployeeProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(message.toByteArray()))
+                .andExpect(status().isCreated());
+        byte[] smile = mockMvc.perform(get("/api/v1/employees").param("email", "ann@doe.com").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get("/api/v1/employees").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then - verify the output
+        EmployeeDto created = new ObjectMapper(new SmileFactory()).readValue(smile, EmployeeDto.class);
+        assertThat(created.getFirstName()).isEqualTo("Ann");
+        assertThat(created.getLastName()).isEqualTo("Smith");
+        List<EmployeeDto> all = new ObjectMapper(new CBORFactory()).readValue(cbor, new TypeReference<>() {
+        });
+        assertThat(all).extracting(EmployeeDto::getEmail).contains("ann@doe.com", "john@doe.com");
+    }
+
+    // JUnit Test for JSON staying the default representation
+    @DisplayName("JUnit Test for JSON staying the default representation")
+    @Test
+    public void givenAcceptAll_whenGetEmployees_thenReturnJson() throws Exception {
+        // given - precondition ot setup
+        String acceptAll = MediaType.ALL_VALUE;
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(get("/api/v1/employees").header(HttpHeaders.ACCEPT, acceptAll))
+
+                // then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+}
@@ -1,8 +1,16 @@
 package cool.cfapps.springboottesting.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cool.cfapps.springboottesting.cache.EmployeeCacheProperties;
+import cool.cfapps.springboottesting.cache.EmployeeListVersion;
+import cool.cfapps.springboottesting.cache.InMemoryCacheInvalidationChannel;
+import cool.cfapps.springboottesting.dto.BatchResultDto;
 import cool.cfapps.springboottesting.dto.CreateEmployeeDto;
 import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent;
+import cool.cfapps.springboottesting.outbox.EmployeeChangeLog;
+import cool.cfapps.springboottesting.routing.ReplicaProperties;
+import cool.cfapps.springboottesting.service.EmployeeBatchService;
 import cool.cfapps.springboottesting.service.EmployeeService;
 import cool.cfapps.springboottesting.util.EntityDtoUtil;
 import org.junit.jupiter.api.DisplayName;
@@ -14,21 +22,33 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
+import static org.mockito.BDDMockito.then;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 
-@WebMvcTest
+@WebMvcTest({EmployeeController.class, EmployeeBatchController.class})
+@Import({EmployeeListVersion.class, InMemoryCacheInvalidationChannel.class, ReplicaProperties.class,
+        EmployeeCacheProperties.class})
 public class EmployeeControllerTest {
 
     @Autowired
@@ -37,9 +57,18 @@ public class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeBatchService employeeBatchService;
+
+    @MockBean
+    private EmployeeChangeLog employeeChangeLog;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EmployeeListVersion employeeListVersion;
+
     // JUnit Test for createEmployee method
     @Test
     @DisplayName("JUnit Test for createEmployee method")
@@ -111,6 +140,42 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath("$[1].id", is(101)));
     }
 
+    // JUnit Test for Get Employees Page method
+    @Test
+    @DisplayName("JUnit Test for Get Employees Page method")
+    public void givenFullPageOfEmployees_whenCallGetEmployeesPage_thenReturnPageWithNextLink() throws Exception {
+        // given - precondition ot setup
+        List<EmployeeDto> employeeDtoList = List.of(
+                EmployeeDto.builder()
+                        .id(100L)
+                        .firstName("John")
+                        .lastName("Doe")
+                        .email("john.doe@gmail.com")
+                        .build(),
+                EmployeeDto.builder()
+                        .id(101L)
+                        .firstName("Jane")
+                        .lastName("Doe")
+                        .email("jane.doe@gmail.com")
+                        .build()
+        );
+
+        given(employeeService.readEmployeesAfter(99L, 2)).willReturn(employeeDtoList);
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees")
+                .param("after", "99")
+                .param("limit", "2"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(employeeDtoList.size())))
+                .andExpect(jsonPath("$[0].id", is(100)))
+                .andExpect(jsonPath("$[1].id", is(101)))
+                .andExpect(header().string("Link", containsString("after=101")));
+    }
+
     // JUnit Test for Get Employee By Id method
     @Test
     @DisplayName("JUnit Test for Get Employee By Id method")
@@ -179,6 +244,220 @@ public class EmployeeControllerTest {
 
     }
 
+    // JUnit Test for conditional Get Employee By Id
+    @Test
+    @DisplayName("JUnit Test for conditional Get Employee By Id")
+    public void givenEmployeeETag_whenGetEmployeeWithIfNoneMatch_thenReturnNotModified() throws Exception {
+        // given - precondition ot setup
+        EmployeeDto employeeDto = EmployeeDto.builder()
+                .id(100L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@gmail.com")
+                .version(3L)
+                .build();
+
+        given(employeeService.readEmployee(100L)).willReturn(Optional.of(employeeDto));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions current = mockMvc.perform(get("/api/v1/employees/{id}", employeeDto.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"100-3\""));
+        ResultActions stale = mockMvc.perform(get("/api/v1/employees/{id}", employeeDto.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"100-2\""));
+
+        // then - verify the output
+        current.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"100-3\""))
+                .andExpect(content().string(""));
+        stale.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"100-3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    // JUnit Test for conditional Get All Employees
+    @Test
+    @DisplayName("JUnit Test for conditional Get All Employees")
+    public void givenListETag_whenGetAllEmployeesWithIfNoneMatch_thenReturnNotModifiedWithoutReading() throws Exception {
+        // given - precondition ot setup
+        given(employeeService.readAllEmployees()).willReturn(List.of());
+        given(employeeChangeLog.lastSeq()).willReturn(7L);
+        String eTag = employeeListVersion.eTag();
+
+        // when - action or the behaviour that we are going to test
+        ResultActions unchanged = mockMvc.perform(get("/api/v1/employees")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        // then - verify the output
+        unchanged.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        then(employeeService).should(never()).readAllEmployees();
+
+        // a committed change moves the list version
+        employeeListVersion.onEmployeeChanged(EmployeeChangedEvent.created(100L));
+        mockMvc.perform(get("/api/v1/employees")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, employeeListVersion.eTag()));
+
+        // a change relayed by another instance moves it as well
+        eTag = employeeListVersion.eTag();
+        given(employeeChangeLog.lastSeq()).willReturn(8L);
+        mockMvc.perform(get("/api/v1/employees")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, employeeListVersion.eTag()));
+    }
+
+    // JUnit Test for Update Employee with a stale If-Match
+    @Test
+    @DisplayName("JUnit Test for Update Employee with a stale If-Match")
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        // given - precondition ot setup
+        EmployeeDto employeeDto = EmployeeDto.builder()
+                .id(100L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john@doe.com")
+                .build();
+
+        given(employeeService.updateEmployee(ArgumentMatchers.argThat(dto -> dto != null && Long.valueOf(2L).equals(dto.getVersion()))))
+                .willThrow(new ObjectOptimisticLockingFailureException(EmployeeDto.class, 100L));
+        given(employeeService.updateEmployee(ArgumentMatchers.argThat(dto -> dto != null && Long.valueOf(3L).equals(dto.getVersion()))))
+                .willAnswer(invocation -> {
+                    EmployeeDto updated = invocation.<EmployeeDto>getArgument(0).copyOf();
+                    updated.setVersion(4L);
+                    return updated;
+                });
+
+        // when - action or the behaviour that we are going to test
+        ResultActions stale = mockMvc.perform(put("/api/v1/employees")
+                .header(HttpHeaders.IF_MATCH, "\"100-2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeDto)));
+        ResultActions current = mockMvc.perform(put("/api/v1/employees")
+                .header(HttpHeaders.IF_MATCH, "\"100-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeDto)));
+
+        // then - verify the output
+        stale.andDo(print())
+                .andExpect(status().isPreconditionFailed());
+        current.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"100-4\""));
+        mockMvc.perform(put("/api/v1/employees")
+                        .header(HttpHeaders.IF_MATCH, "W/\"100-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employeeDto)))
+                .andExpect(status().isPreconditionFailed());
+        // the ETag of another employee
+        mockMvc.perform(put("/api/v1/employees")
+                        .header(HttpHeaders.IF_MATCH, "\"101-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employeeDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    // JUnit Test for createEmployee with an email that is taken
+    @Test
+    @DisplayName("JUnit Test for createEmployee with an email that is taken")
+    public void givenDuplicateEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        // given - precondition ot setup
+        CreateEmployeeDto createEmployeeDto = CreateEmployeeDto.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john@doe.com")
+                .build();
+
+        given(employeeService.createEmployee(ArgumentMatchers.any(EmployeeDto.class)))
+                .willThrow(new DataIntegrityViolationException("ux_employees_tenant_id_email"));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createEmployeeDto)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isConflict());
+    }
+
+    // JUnit Test for createEmployee violating another constraint
+    @Test
+    @DisplayName("JUnit Test for createEmployee violating another constraint")
+    public void givenMissingFirstName_whenCreateEmployee_thenReturnBadRequest() throws Exception {
+        // given - precondition ot setup
+        CreateEmployeeDto createEmployeeDto = CreateEmployeeDto.builder()
+                .lastName("Doe")
+                .email("john@doe.com")
+                .build();
+
+        given(employeeService.createEmployee(ArgumentMatchers.any(EmployeeDto.class)))
+                .willThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("NULL not allowed for column \"FIRST_NAME\"", "23502")));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createEmployeeDto)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    // JUnit Test for batch create with an email that is taken
+    @Test
+    @DisplayName("JUnit Test for batch create with an email that is taken")
+    public void givenDuplicateEmail_whenBatchCreate_thenReportFailedChunk() throws Exception {
+        // given - precondition ot setup
+        List<CreateEmployeeDto> createEmployeeDtos = List.of(
+                CreateEmployeeDto.builder().firstName("John").lastName("Doe").email("john@doe.com").build(),
+                CreateEmployeeDto.builder().firstName("Jane").lastName("Doe").email("john@doe.com").build());
+
+        given(employeeBatchService.createEmployees(ArgumentMatchers.anyList()))
+                .willReturn(BatchResultDto.of(2, 0, List.of(), List.of(), 500, List.of(0), List.of(), 1_000_000L));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createEmployeeDtos)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.processed", is(0)))
+                .andExpect(jsonPath("$.chunkSize", is(500)))
+                .andExpect(jsonPath("$.failedChunks[0]", is(0)));
+    }
+
+    // JUnit Test for Update Employee with a stale version in the body
+    @Test
+    @DisplayName("JUnit Test for Update Employee with a stale version in the body")
+    public void givenStaleVersion_whenUpdateEmployee_thenReturnConflict() throws Exception {
+        // given - precondition ot setup
+        EmployeeDto employeeDto = EmployeeDto.builder()
+                .id(100L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john@doe.com")
+                .version(2L)
+                .build();
+
+        given(employeeService.updateEmployee(ArgumentMatchers.any(EmployeeDto.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(EmployeeDto.class, 100L));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeDto)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isConflict());
+    }
+
     // JUnit Test for Delete Employee method
     @Test
     @DisplayName("JUnit Test for Delete Employee method")
@@ -195,6 +474,32 @@ public class EmployeeControllerTest {
                 .andExpect(status().isOk());
     }
 
+    // JUnit Test for Batch Create Employees method
+    @Test
+    @DisplayName("JUnit Test for Batch Create Employees method")
+    public void givenListOfCreateEmployeeDtos_whenBatchCreate_thenReturnBatchResult() throws Exception {
+        // given - precondition ot setup
+        List<CreateEmployeeDto> createEmployeeDtos = List.of(
+                CreateEmployeeDto.builder().firstName("John").lastName("Doe").email("john.doe@gmail.com").build(),
+                CreateEmployeeDto.builder().firstName("Jane").lastName("Doe").email("jane.doe@gmail.com").build()
+        );
+
+        given(employeeBatchService.createEmployees(ArgumentMatchers.anyList()))
+                .willReturn(BatchResultDto.of(2, 2, List.of(), List.of(), 500, List.of(), List.of(), 1_000_000L));
+
+        // when - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/v1/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createEmployeeDtos)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.requested", is(2)))
+                .andExpect(jsonPath("$.processed", is(2)))
+                .andExpect(jsonPath("$.elapsedMillis", is(1)));
+    }
+
     // JUnit Test for
     //@Test
     //public void given_when_then() {
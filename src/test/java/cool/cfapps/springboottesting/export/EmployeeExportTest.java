@@ -0,0 +1,130 @@
+package cool.cfapps.springboottesting.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cool.cfapps.springboottesting.dto.ExportJobDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exporttest;DB_CLOSE_DELAY=-1",
+        "employees.export.directory=target/employee-exports-test"
+})
+@AutoConfigureMockMvc
+class EmployeeExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("DELETE FROM employees");
+        jdbcTemplate.update("INSERT INTO employees (id, first_name, last_name, email, version) VALUES " +
+                "(1, 'John', 'Doe', 'john@doe.com', 0), (2, 'Jane', 'Doe, Jr.', 'jane@doe.com', 3)");
+    }
+
+    // JUnit Test for CSV export job
+    @DisplayName("JUnit Test for CSV export job")
+    @Test
+    public void givenEmployees_whenExportCsv_thenDownloadGzipCsv() throws Exception {
+        // given - precondition ot setup
+        ExportJobDto exportJobDto = startAndAwait("CSV");
+
+        // when - action or the behaviour that we are going to test
+        MvcResult download = mockMvc.perform(get("/api/v1/employees/exports/{id}/file", exportJobDto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/gzip"))
+                .andReturn();
+
+        // then - verify the output
+        assertThat(exportJobDto.getRows()).isEqualTo(2);
+        assertThat(gunzip(download.getResponse().getContentAsByteArray())).isEqualTo(
+                "id,first_name,last_name,email,version\n" +
+                "1,John,Doe,john@doe.com,0\n" +
+                "2,Jane,\"Doe, Jr.\",jane@doe.com,3\n");
+    }
+
+    // JUnit Test for NDJSON export job with a range request
+    @DisplayName("JUnit Test for NDJSON export job with a range request")
+    @Test
+    public void givenEmployees_whenExportNdjson_thenDownloadInRanges() throws Exception {
+        // given - precondition ot setup
+        ExportJobDto exportJobDto = startAndAwait("NDJSON");
+
+        // when - action or the behaviour that we are going to test
+        byte[] head = mockMvc.perform(get("/api/v1/employees/exports/{id}/file", exportJobDto.getId())
+                        .header(HttpHeaders.RANGE, "bytes=0-9"))
+                .andExpect(status().isPartialContent())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] tail = mockMvc.perform(get("/api/v1/employees/exports/{id}/file", exportJobDto.getId())
+                        .header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isPartialContent())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then - verify the output
+        byte[] file = new byte[head.length + tail.length];
+        System.arraycopy(head, 0, file, 0, head.length);
+        System.arraycopy(tail, 0, file, head.length, tail.length);
+        assertThat(file.length).isEqualTo(exportJobDto.getBytes());
+        assertThat(gunzip(file)).isEqualTo(
+                "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"john@doe.com\",\"version\":0}\n" +
+                "{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Doe, Jr.\",\"email\":\"jane@doe.com\",\"version\":3}\n");
+    }
+
+    // JUnit Test for unknown export job
+    @DisplayName("JUnit Test for unknown export job")
+    @Test
+    public void givenUnknownJobId_whenReadExport_thenReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/exports/{id}", "unknown"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/employees/exports/{id}/file", "unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ExportJobDto startAndAwait(String format) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/v1/employees/exports").param("format", format))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists(HttpHeaders.LOCATION))
+                .andReturn();
+        ExportJobDto exportJobDto = objectMapper.readValue(started.getResponse().getContentAsString(), ExportJobDto.class);
+
+        for (int poll = 0; poll < 100 && !"COMPLETED".equals(exportJobDto.getStatus()); poll++) {
+            Thread.sleep(50);
+            String status = mockMvc.perform(get("/api/v1/employees/exports/{id}", exportJobDto.getId()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            exportJobDto = objectMapper.readValue(status, ExportJobDto.class);
+        }
+        assertThat(exportJobDto.getStatus()).isEqualTo("COMPLETED");
+        return exportJobDto;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package cool.cfapps.springboottesting.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cool.cfapps.springboottesting.dto.ImportErrorDto;
+import cool.cfapps.springboottesting.dto.ImportResultDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importtest;DB_CLOSE_DELAY=-1",
+        "employees.import.chunk-size=2",
+        "employees.import.workers=2"
+})
+@AutoConfigureMockMvc
+class EmployeeImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("DELETE FROM employees");
+    }
+
+    // JUnit Test for CSV import with rejected rows
+    @DisplayName("JUnit Test for CSV import with rejected rows")
+    @Test
+    public void givenCsvWithInvalidRows_whenImport_thenImportValidRowsAndReportRejected() throws Exception {
+        // given - precondition ot setup
+        String csv = "email,first_name,last_name\n" +
+                "john@doe.com,John,Doe\n" +
+                "john@doe.com,Johnny,Doe\n" +
+                "jane@doe.com,Jane,\"Doe, \"\"Jr.\"\"\"\n" +
+                "no-name@doe.com,,Doe\n" +
+                "broken@doe.com,Broken\n" +
+                "alfred@doe.com,Alfred,Neumann\n";
+
+        // when - action or the behaviour that we are going to test
+        ImportResultDto result = importEmployees(new MediaType("text", "csv"), csv.getBytes(StandardCharsets.UTF_8),
+                null, 0);
+
+        // then - verify the output (the duplicate email is in the same chunk, so the first row wins)
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        assertThat(result.getRows()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getResumeFromChunk()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(ImportErrorDto::getRow).containsExactlyInAnyOrder(2L, 4L, 5L);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_name FROM employees WHERE email = 'jane@doe.com'",
+                String.class)).isEqualTo("Doe, \"Jr.\"");
+    }
+
+    // JUnit Test for gzip NDJSON import resumed from a chunk
+    @DisplayName("JUnit Test for gzip NDJSON import resumed from a chunk")
+    @Test
+    public void givenGzipNdjson_whenImportFromChunk_thenSkipEarlierChunks() throws Exception {
+        // given - precondition ot setup
+        String ndjson = "{\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"john@doe.com\"}\n" +
+                "{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"email\":\"jane@doe.com\"}\n" +
+                "\n" +
+                "{\"firstName\":\"Alfred\",\"lastName\":\"Neumann\",\"email\":\"alfred@doe.com\"}\n" +
+                "{\"id\":7,\"firstName\":\"Max\",\"lastName\":\"Muster\",\"email\":\"max@doe.com\"}\n" +
+                "{\"firstName\":\"Erika\",\n";
+
+        // when - action or the behaviour that we are going to test
+        ImportResultDto result = importEmployees(MediaType.APPLICATION_NDJSON, gzip(ndjson), "gzip", 1);
+
+        // then - verify the output
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(result.getSkipped()).isEqualTo(2);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportErrorDto::getRow).containsExactlyInAnyOrder(4L, 5L);
+        assertThat(jdbcTemplate.queryForList("SELECT email FROM employees", String.class))
+                .containsExactly("alfred@doe.com");
+
+        mockMvc.perform(get("/api/v1/employees/import/{id}", result.getId()))
+                .andExpect(status().isOk());
+    }
+
+    // JUnit Test for CSV import without the required columns
+    @DisplayName("JUnit Test for CSV import without the required columns")
+    @Test
+    public void givenCsvWithoutHeader_whenImport_thenReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/employees/import")
+                        .contentType(new MediaType("text", "csv"))
+                        .content("John,Doe,john@doe.com\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ImportResultDto importEmployees(MediaType contentType, byte[] body, String contentEncoding,
+                                           int fromChunk) throws Exception {
+        var request = post("/api/v1/employees/import")
+                .contentType(contentType)
+                .param("fromChunk", Integer.toString(fromChunk))
+                .content(body);
+        if (contentEncoding != null) {
+            request.header(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        String response = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, ImportResultDto.class);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
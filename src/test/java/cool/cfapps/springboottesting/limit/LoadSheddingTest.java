@@ -0,0 +1,156 @@
+package cool.cfapps.springboottesting.limit;
+
+import cool.cfapps.springboottesting.limit.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadSheddingTest {
+
+    // JUnit Test for the limit following the request time
+    @DisplayName("JUnit Test for the limit following the request time")
+    @Test
+    public void givenRequestsGettingSlower_whenSampled_thenLimitShrinks() {
+        // given - precondition ot setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 200, 1.0, 1.5);
+        sample(limiter, TimeUnit.MILLISECONDS.toNanos(1), 50);
+        int fastLimit = limiter.limit();
+
+        // when - action or the behaviour that we are going to test
+        sample(limiter, TimeUnit.MILLISECONDS.toNanos(20), 50);
+
+        // then - verify the output
+        assertThat(fastLimit).isGreaterThan(20);
+        assertThat(limiter.limit()).isLessThan(fastLimit / 2);
+        assertThat(limiter.limit()).isGreaterThanOrEqualTo(2);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    // JUnit Test for reads only using their share of the limit
+    @DisplayName("JUnit Test for reads only using their share of the limit")
+    @Test
+    public void givenReadsAtTheirShare_whenAcquire_thenOnlyWritesAreAdmitted() {
+        // given - precondition ot setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 10, 0.5, 1.5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(Priority.READ)).isTrue();
+        }
+
+        // when - action or the behaviour that we are going to test
+        boolean read = limiter.tryAcquire(Priority.READ);
+        boolean write = limiter.tryAcquire(Priority.WRITE);
+
+        // then - verify the output
+        assertThat(read).isFalse();
+        assertThat(write).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(6);
+    }
+
+    // JUnit Test for the token bucket per client
+    @DisplayName("JUnit Test for the token bucket per client")
+    @Test
+    public void givenClientOverItsBurst_whenAcquire_thenWaitUntilTheNextToken() {
+        // given - precondition ot setup
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        ClientQuotas clientQuotas = new ClientQuotas(10, 3, now::get);
+        for (int i = 0; i < 3; i++) {
+            assertThat(clientQuotas.tryAcquire("acme")).isZero();
+        }
+
+        // when - action or the behaviour that we are going to test
+        long wait = clientQuotas.tryAcquire("acme");
+
+        // then - verify the output
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(clientQuotas.tryAcquire("globex")).isZero();
+        now.addAndGet(wait);
+        assertThat(clientQuotas.tryAcquire("acme")).isZero();
+        assertThat(clientQuotas.tryAcquire("acme")).isPositive();
+    }
+
+    // JUnit Test for shedding requests over the limit with 503 and throttling clients with 429
+    @DisplayName("JUnit Test for shedding requests over the limit with 503 and throttling clients with 429")
+    @Test
+    public void givenLimitReached_whenRequest_thenServiceUnavailable() throws Exception {
+        // given - precondition ot setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1.0, 1.5);
+        ClientQuotas clientQuotas = new ClientQuotas(1, 1, new AtomicLong()::get);
+        LoadSheddingFilter filter = new LoadSheddingFilter(limiter, clientQuotas, "X-Client-Id", Set.of("127.0.0.1"));
+        MockHttpServletResponse admitted = filter(filter, "acme");
+        assertThat(limiter.tryAcquire(Priority.WRITE)).isTrue();
+
+        // when - action or the behaviour that we are going to test
+        MockHttpServletResponse shed = filter(filter, "globex");
+        MockHttpServletResponse throttled = filter(filter, "acme");
+
+        // then - verify the output
+        assertThat(admitted.getStatus()).isEqualTo(200);
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(throttled.getStatus()).isEqualTo(429);
+        assertThat(filter.count(Priority.READ, LoadSheddingFilter.Outcome.ADMITTED)).isEqualTo(1);
+        assertThat(filter.count(Priority.READ, LoadSheddingFilter.Outcome.SHED)).isEqualTo(1);
+        assertThat(filter.count(Priority.READ, LoadSheddingFilter.Outcome.THROTTLED)).isEqualTo(1);
+    }
+
+    // JUnit Test for keying the quota on the remote address unless a trusted proxy names the client
+    @DisplayName("JUnit Test for keying the quota on the remote address unless a trusted proxy names the client")
+    @Test
+    public void givenClientHeaderFromUntrustedAddress_whenRequest_thenQuotaOfTheAddress() throws Exception {
+        // given - precondition ot setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 10, 1.0, 1.5);
+        ClientQuotas clientQuotas = new ClientQuotas(1, 1, new AtomicLong()::get);
+        LoadSheddingFilter filter = new LoadSheddingFilter(limiter, clientQuotas, "X-Client-Id", Set.of("10.0.0.1"));
+        MockHttpServletResponse first = filter(filter, "192.168.0.7", "acme");
+
+        // when - action or the behaviour that we are going to test
+        MockHttpServletResponse otherId = filter(filter, "192.168.0.7", "globex");
+        MockHttpServletResponse proxied = filter(filter, "10.0.0.1", "acme");
+        MockHttpServletResponse proxiedAgain = filter(filter, "10.0.0.1", "acme");
+        MockHttpServletResponse otherProxiedClient = filter(filter, "10.0.0.1", "globex");
+
+        // then - verify the output
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(otherId.getStatus()).isEqualTo(429);
+        assertThat(proxied.getStatus()).isEqualTo(200);
+        assertThat(proxiedAgain.getStatus()).isEqualTo(429);
+        assertThat(otherProxiedClient.getStatus()).isEqualTo(200);
+    }
+
+    // acquires the limit and releases every request with the same request time
+    private static void sample(AdaptiveConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire(Priority.WRITE)) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.onSuccess(rttNanos);
+            }
+        }
+    }
+
+    private static MockHttpServletResponse filter(LoadSheddingFilter filter, String clientId) throws Exception {
+        return filter(filter, "127.0.0.1", clientId);
+    }
+
+    private static MockHttpServletResponse filter(LoadSheddingFilter filter, String remoteAddress, String clientId)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/employees");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader("X-Client-Id", clientId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,97 @@
+package cool.cfapps.springboottesting.memory;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.outbox.EmployeeChangeRelay;
+import cool.cfapps.springboottesting.service.EmployeeService;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:offheaptest;DB_CLOSE_DELAY=-1",
+        "employees.memory.enabled=true"
+})
+class OffHeapEmployeeRepositoryTest {
+
+    private static final String INSERT_EMPLOYEE = "INSERT INTO employees (id, first_name, last_name, email, version, " +
+            "tenant_id) VALUES (?, ?, ?, ?, 0, ?)";
+    // a change written by another instance
+    private static final String INSERT_CHANGE = "INSERT INTO employee_changes (employee_id, change_type, " +
+            "changed_at, tenant_id) VALUES (?, ?, CURRENT_TIMESTAMP, ?)";
+
+    @Autowired
+    private OffHeapEmployeeRepository offHeapEmployeeRepository;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeChangeRelay employeeChangeRelay;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        // the load started when the application was ready comes first
+        for (int i = 0; i < 100 && !offHeapEmployeeRepository.isLoaded(); i++) {
+            Thread.sleep(100);
+        }
+        jdbcTemplate.update("DELETE FROM employees");
+        jdbcTemplate.update(INSERT_EMPLOYEE, 900001, "John", "Doe", "john@doe.com", TenantContext.DEFAULT_TENANT);
+        jdbcTemplate.update(INSERT_EMPLOYEE, 900002, "Jane", "Roe", "jane@acme.com", "acme");
+        offHeapEmployeeRepository.load();
+    }
+
+    // JUnit Test for reading employees from the store instead of the database
+    @DisplayName("JUnit Test for reading employees from the store instead of the database")
+    @Test
+    public void givenLoadedStore_whenReadEmployee_thenServedFromMemoryPerTenant() {
+        // given - precondition ot setup
+        // neither in the change feed nor written by this instance: only the database has it
+        jdbcTemplate.update(INSERT_EMPLOYEE, 900003, "Max", "Poe", "max@doe.com", TenantContext.DEFAULT_TENANT);
+
+        // when - action or the behaviour that we are going to test
+        EmployeeDto john = employeeService.readEmployeeByEmail("john@doe.com").orElseThrow();
+        EmployeeDto jane = TenantContext.call("acme", () -> employeeService.readEmployee(900002L)).orElseThrow();
+
+        // then - verify the output
+        assertThat(john.getId()).isEqualTo(900001);
+        assertThat(jane.getEmail()).isEqualTo("jane@acme.com");
+        assertThat(employeeService.readEmployee(900002L)).isEmpty();
+        assertThat(employeeService.readEmployee(900003L)).isEmpty();
+        assertThat(offHeapEmployeeRepository.findDtoByName("John", "Doe")).isPresent();
+    }
+
+    // JUnit Test for following the writes of this and of other instances
+    @DisplayName("JUnit Test for following the writes of this and of other instances")
+    @Test
+    public void givenWrites_whenCommittedAndRefreshed_thenStoreFollows() {
+        // given - precondition ot setup
+        EmployeeDto created = employeeService.createEmployee(EmployeeDto.builder()
+                .firstName("Ann").lastName("Smith").email("ann@doe.com").build());
+        jdbcTemplate.update(INSERT_EMPLOYEE, 900004, "Bob", "Stone", "bob@doe.com", TenantContext.DEFAULT_TENANT);
+        jdbcTemplate.update(INSERT_CHANGE, 900004, "CREATED", TenantContext.DEFAULT_TENANT);
+        jdbcTemplate.update("DELETE FROM employees WHERE id = 900001");
+        jdbcTemplate.update(INSERT_CHANGE, 900001, "DELETED", TenantContext.DEFAULT_TENANT);
+
+        // when - action or the behaviour that we are going to test
+        // written here: applied right after the commit, before the change is relayed
+        Optional<EmployeeDto> ownWrite = employeeService.readEmployee(created.getId());
+        employeeChangeRelay.relay();
+        offHeapEmployeeRepository.refresh();
+
+        // then - verify the output
+        assertThat(ownWrite).hasValueSatisfying(
+                employee -> assertThat(employee.getEmail()).isEqualTo("ann@doe.com"));
+        // written elsewhere: applied from the change feed
+        assertThat(employeeService.readEmployeeByEmail("bob@doe.com")).isPresent();
+        assertThat(employeeService.readEmployee(900001L)).isEmpty();
+    }
+}
@@ -0,0 +1,108 @@
+package cool.cfapps.springboottesting.memory;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapEmployeeStoreTest {
+
+    private static final String ACME = "acme";
+    private static final String GLOBEX = "globex";
+
+    private final OffHeapEmployeeStore store = new OffHeapEmployeeStore(OffHeapEmployeeStore.MIN_CHUNK_SIZE, 0);
+
+    // JUnit Test for the lookups by id, email and name
+    @DisplayName("JUnit Test for the lookups by id, email and name")
+    @Test
+    public void givenEmployees_whenFind_thenReturnEmployeeOfTheTenant() {
+        // given - precondition ot setup
+        store.put(ACME, new EmployeeDto(1, "J\u00fcrgen", "M\u00fcller", "jm@doe.com", 3L));
+        store.put(ACME, new EmployeeDto(2, "John", "Doe", "john@doe.com", null));
+        store.put(GLOBEX, new EmployeeDto(3, "John", "Doe", "john@globex.com", 0L));
+
+        // when - action or the behaviour that we are going to test
+        EmployeeDto byId = store.findById(ACME, 1).orElseThrow();
+        EmployeeDto byEmail = store.findByEmail(ACME, "john@doe.com").orElseThrow();
+        EmployeeDto byName = store.findByName(GLOBEX, "John", "Doe").orElseThrow();
+
+        // then - verify the output
+        assertThat(byId).isEqualTo(new EmployeeDto(1, "J\u00fcrgen", "M\u00fcller", "jm@doe.com", 3L));
+        assertThat(byEmail).isEqualTo(new EmployeeDto(2, "John", "Doe", "john@doe.com", null));
+        assertThat(byName.getId()).isEqualTo(3);
+        assertThat(store.findById(GLOBEX, 1)).isEmpty();
+        assertThat(store.findByEmail(GLOBEX, "john@doe.com")).isEmpty();
+        assertThat(store.findByEmail("initech", "john@doe.com")).isEmpty();
+        assertThat(store.findByName(ACME, "Joh", "nDoe")).isEmpty();
+    }
+
+    // JUnit Test for updates and removals moving the secondary indexes along
+    @DisplayName("JUnit Test for updates and removals moving the secondary indexes along")
+    @Test
+    public void givenEmployee_whenUpdateAndRemove_thenIndexesFollow() {
+        // given - precondition ot setup
+        store.put(ACME, new EmployeeDto(1, "John", "Doe", "john@doe.com", 0L));
+
+        // when - action or the behaviour that we are going to test
+        boolean updated = store.put(ACME, new EmployeeDto(1, "John", "Smith", "js@doe.com", 1L));
+        boolean stale = store.put(ACME, new EmployeeDto(1, "John", "Doe", "john@doe.com", 0L));
+
+        // then - verify the output
+        assertThat(updated).isTrue();
+        assertThat(stale).isFalse();
+        assertThat(store.findByEmail(ACME, "john@doe.com")).isEmpty();
+        assertThat(store.findByName(ACME, "John", "Doe")).isEmpty();
+        assertThat(store.findByEmail(ACME, "js@doe.com")).hasValueSatisfying(
+                employee -> assertThat(employee.getVersion()).isEqualTo(1L));
+        assertThat(store.remove(1)).isTrue();
+        assertThat(store.remove(1)).isFalse();
+        assertThat(store.findById(ACME, 1)).isEmpty();
+        assertThat(store.findByEmail(ACME, "js@doe.com")).isEmpty();
+        assertThat(store.size()).isZero();
+    }
+
+    // JUnit Test for growing the tables and compacting the records
+    @DisplayName("JUnit Test for growing the tables and compacting the records")
+    @Test
+    public void givenManyWrites_whenTablesGrowAndRecordsCompact_thenEveryEmployeeIsFound() {
+        // given - precondition ot setup
+        int employees = 5_000;
+        for (int id = 1; id <= employees; id++) {
+            store.put(ACME, new EmployeeDto(id, "First" + id, "Last" + id % 100, "e" + id + "@doe.com", 0L));
+        }
+        long bytesBeforeUpdates = store.offHeapBytes();
+
+        // when - action or the behaviour that we are going to test
+        // every round leaves a generation of garbage records behind, more than a chunk in total
+        for (long version = 1; version <= 20; version++) {
+            for (int id = 1; id <= employees; id++) {
+                if (id % 2 == 0) {
+                    store.put(ACME, new EmployeeDto(id, "First" + id, "Last" + id % 100, "v" + id + "@doe.com",
+                            version));
+                }
+            }
+        }
+        for (int id = 1; id <= employees; id += 4) {
+            store.remove(id);
+        }
+
+        // then - verify the output
+        assertThat(store.size()).isEqualTo(employees - employees / 4);
+        assertThat(store.offHeapBytes()).isLessThanOrEqualTo(bytesBeforeUpdates + OffHeapEmployeeStore.MIN_CHUNK_SIZE);
+        for (int id = 1; id <= employees; id++) {
+            String email = (id % 2 == 0 ? "v" : "e") + id + "@doe.com";
+            if (id % 4 == 1) {
+                assertThat(store.findById(ACME, id)).isEmpty();
+                assertThat(store.findByEmail(ACME, email)).isEmpty();
+            } else {
+                assertThat(store.findById(ACME, id)).hasValueSatisfying(
+                        employee -> assertThat(employee.getEmail()).isEqualTo(email));
+                assertThat(store.findByEmail(ACME, email)).isPresent();
+            }
+        }
+        assertThat(store.findByName(ACME, "First42", "Last42")).hasValueSatisfying(
+                employee -> assertThat(employee.getVersion()).isEqualTo(20L));
+    }
+}
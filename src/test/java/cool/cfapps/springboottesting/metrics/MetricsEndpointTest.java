@@ -0,0 +1,57 @@
+package cool.cfapps.springboottesting.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Static import to improve code length
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // JUnit Test for the Prometheus scrape endpoint
+    @DisplayName("JUnit Test for the Prometheus scrape endpoint")
+    @Test
+    public void givenEmployeeRequests_whenScrapePrometheus_thenReturnEmployeeMetrics() throws Exception {
+        // given - precondition ot setup
+        mockMvc.perform(post("/api/v1/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"metrics@doe.com\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(status().isOk());
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(delete("/api/v1/employees/{id}", 999_999L))
+                .andExpect(status().isNotFound());
+
+        // then - verify the output
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/api/v1/employees\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString(
+                        "employees_repository_rows_count{method=\"findAllDtos\",repository=\"EmployeeRepository\",}")))
+                .andExpect(content().string(containsString("employees_not_found_total 1.0")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"employeesById\"")));
+    }
+}
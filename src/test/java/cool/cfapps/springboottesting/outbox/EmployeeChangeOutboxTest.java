@@ -0,0 +1,230 @@
+package cool.cfapps.springboottesting.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cool.cfapps.springboottesting.dto.BatchResultDto;
+import cool.cfapps.springboottesting.dto.EmployeeChangeDto;
+import cool.cfapps.springboottesting.dto.EmployeeChangesDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.event.EmployeeChangedEvent.ChangeType;
+import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.service.EmployeeBatchService;
+import cool.cfapps.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outboxtest;DB_CLOSE_DELAY=-1",
+        "employees.outbox.sink=memory",
+        "employees.outbox.relay-interval=1h"
+})
+@AutoConfigureMockMvc
+class EmployeeChangeOutboxTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeBatchService employeeBatchService;
+    @Autowired
+    private EmployeeChangeLog employeeChangeLog;
+    @Autowired
+    private EmployeeChangeRelay employeeChangeRelay;
+    @Autowired
+    private EmployeeChangeSink employeeChangeSink;
+    @Autowired
+    private OutboxProperties outboxProperties;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void setUp() {
+        employeeChangeRelay.relay();
+        ((InMemoryEmployeeChangeSink) employeeChangeSink).clear();
+    }
+
+    // JUnit Test for relaying the committed employee changes
+    @DisplayName("JUnit Test for relaying the committed employee changes")
+    @Test
+    public void givenEmployeeWrites_whenRelay_thenChangesAreReadBySeq() throws Exception {
+        // given - precondition ot setup
+        long since = employeeChangeLog.lastSeq();
+        EmployeeDto john = employeeService.createEmployee(employee("John", "john@outbox.com"));
+        EmployeeDto jane = employeeService.createEmployee(employee("Jane", "jane@outbox.com"));
+        EmployeeDto renamed = john.copyOf();
+        renamed.setLastName("Smith");
+        employeeService.updateEmployee(renamed);
+        employeeService.deleteEmployee(jane.getId());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            employeeService.createEmployee(employee("Rolled", "rolled@outbox.com"));
+            status.setRollbackOnly();
+        });
+
+        // when - action or the behaviour that we are going to test
+        int relayed = employeeChangeRelay.relay();
+        String body = mockMvc.perform(get("/api/v1/employees/changes").param("since", String.valueOf(since)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        EmployeeChangesDto changes = objectMapper.readValue(body, EmployeeChangesDto.class);
+
+        // then - verify the output
+        assertThat(relayed).isEqualTo(4);
+        assertThat(changes.getChanges())
+                .extracting(EmployeeChangeDto::getSeq, EmployeeChangeDto::getType, EmployeeChangeDto::getEmployeeId)
+                .containsExactly(
+                        tuple(since + 1, ChangeType.CREATED, john.getId()),
+                        tuple(since + 2, ChangeType.CREATED, jane.getId()),
+                        tuple(since + 3, ChangeType.UPDATED, john.getId()),
+                        tuple(since + 4, ChangeType.DELETED, jane.getId()));
+        assertThat(changes.getChanges().get(0).getEmployee().getLastName()).isEqualTo("Smith");
+        assertThat(changes.getChanges().get(1).getEmployee()).isNull();
+        assertThat(changes.getNext()).isEqualTo(since + 4);
+        assertThat(changes.isMore()).isFalse();
+        assertThat(((InMemoryEmployeeChangeSink) employeeChangeSink).changes()).isEqualTo(changes.getChanges());
+    }
+
+    // JUnit Test for reading the changes page by page
+    @DisplayName("JUnit Test for reading the changes page by page")
+    @Test
+    public void givenChanges_whenReadWithLimit_thenNextPointsToTheRest() throws Exception {
+        // given - precondition ot setup
+        long since = employeeChangeLog.lastSeq();
+        employeeService.createEmployee(employee("Page", "page1@outbox.com"));
+        employeeService.createEmployee(employee("Page", "page2@outbox.com"));
+        employeeChangeRelay.relay();
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(get("/api/v1/employees/changes")
+                        .param("since", String.valueOf(since))
+                        .param("limit", "1"))
+
+                // then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(1))
+                .andExpect(jsonPath("$.next").value(since + 1))
+                .andExpect(jsonPath("$.more").value(true));
+        mockMvc.perform(get("/api/v1/employees/changes")
+                        .param("since", String.valueOf(since + 1))
+                        .param("limit", "1"))
+                .andExpect(jsonPath("$.changes[0].employee.email").value("page2@outbox.com"))
+                .andExpect(jsonPath("$.more").value(false));
+    }
+
+    // JUnit Test for a consumer that fell behind the retention
+    @DisplayName("JUnit Test for a consumer that fell behind the retention")
+    @Test
+    public void givenPurgedChanges_whenReadChanges_thenGone() throws Exception {
+        // given - precondition ot setup
+        long since = employeeChangeLog.lastSeq();
+        employeeService.createEmployee(employee("Old", "old@outbox.com"));
+        employeeChangeRelay.relay();
+        Duration retention = outboxProperties.getRetention();
+        outboxProperties.setRetention(Duration.ofMillis(-100));
+        try {
+            assertThat(employeeChangeRelay.purge()).isPositive();
+        } finally {
+            outboxProperties.setRetention(retention);
+        }
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(get("/api/v1/employees/changes").param("since", String.valueOf(since)))
+
+                // then - verify the output
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.next").value(since + 1))
+                .andExpect(jsonPath("$.changes.length()").value(0));
+        mockMvc.perform(get("/api/v1/employees/changes").param("since", String.valueOf(since + 1)))
+                .andExpect(status().isOk());
+    }
+
+    // JUnit Test for the changes of a batch delete
+    @DisplayName("JUnit Test for the changes of a batch delete")
+    @Test
+    public void givenExistingAndMissingIds_whenBatchDelete_thenOnlyDeletedIdsAreChanges() {
+        // given - precondition ot setup
+        EmployeeDto kept = employeeService.createEmployee(employee("Kept", "kept@outbox.com"));
+        EmployeeDto gone = employeeService.createEmployee(employee("Gone", "gone@outbox.com"));
+        employeeChangeRelay.relay();
+        long since = employeeChangeLog.lastSeq();
+
+        // when - action or the behaviour that we are going to test
+        long missing = kept.getId() + 1_000_000;
+        BatchResultDto result = employeeBatchService.deleteEmployees(List.of(gone.getId(), missing));
+        employeeChangeRelay.relay();
+
+        // then - verify the output
+        assertThat(employeeChangeLog.readChanges(since, 10).getChanges())
+                .extracting(EmployeeChangeDto::getType, EmployeeChangeDto::getEmployeeId)
+                .containsExactly(tuple(ChangeType.DELETED, gone.getId()));
+        assertThat(result.getProcessed()).isEqualTo(1);
+        assertThat(result.getNotFound()).containsExactly(missing);
+    }
+
+    // JUnit Test for a batch chunk that fails on commit
+    @DisplayName("JUnit Test for a batch chunk that fails on commit")
+    @Test
+    public void givenDuplicateEmailInSecondChunk_whenBatchUpdate_thenOnlyCommittedChunksAreReported() {
+        // given - precondition ot setup
+        EmployeeBatchService twoPerChunk = new EmployeeBatchService(employeeRepository, transactionManager,
+                eventPublisher, 2);
+        EmployeeDto ann = employeeService.createEmployee(employee("Ann", "ann@outbox.com"));
+        EmployeeDto bob = employeeService.createEmployee(employee("Bob", "bob@outbox.com"));
+        EmployeeDto cid = employeeService.createEmployee(employee("Cid", "cid@outbox.com"));
+        employeeChangeRelay.relay();
+        long since = employeeChangeLog.lastSeq();
+        long missing = cid.getId() + 1_000_000;
+        EmployeeDto renamedAnn = ann.copyOf();
+        renamedAnn.setLastName("Renamed");
+        EmployeeDto missingEmployee = employee("Dan", "dan@outbox.com");
+        missingEmployee.setId(missing);
+        // the duplicate email only fails when the chunk is flushed on commit
+        EmployeeDto bobWithAnnsEmail = bob.copyOf();
+        bobWithAnnsEmail.setEmail(ann.getEmail());
+        EmployeeDto renamedCid = cid.copyOf();
+        renamedCid.setLastName("Renamed");
+
+        // when - action or the behaviour that we are going to test
+        BatchResultDto result = twoPerChunk.updateEmployees(
+                List.of(renamedAnn, missingEmployee, bobWithAnnsEmail, renamedCid));
+        employeeChangeRelay.relay();
+
+        // then - verify the output
+        assertThat(result.getProcessed()).isEqualTo(1);
+        assertThat(result.getNotFound()).containsExactly(missing);
+        assertThat(result.getFailedChunks()).containsExactly(1);
+        assertThat(result.getFailed()).containsExactly(bob.getId(), cid.getId());
+        assertThat(employeeChangeLog.readChanges(since, 10).getChanges())
+                .extracting(EmployeeChangeDto::getType, EmployeeChangeDto::getEmployeeId)
+                .containsExactly(tuple(ChangeType.UPDATED, ann.getId()));
+        assertThat(employeeService.readEmployee(cid.getId())).get()
+                .extracting(EmployeeDto::getLastName).isEqualTo("Outbox");
+    }
+
+    private static EmployeeDto employee(String firstName, String email) {
+        return EmployeeDto.builder().firstName(firstName).lastName("Outbox").email(email).build();
+    }
+}
@@ -0,0 +1,187 @@
+package cool.cfapps.springboottesting.reactive;
+
+import cool.cfapps.springboottesting.dto.CreateEmployeeDto;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.tenant.TenantProperties;
+import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.BDDMockito.given;
+
+// the same scenarios as EmployeeControllerTest, run against the WebFlux stack
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+@Import(TenantProperties.class)
+public class ReactiveEmployeeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService employeeService;
+
+    private EmployeeDto john() {
+        return EmployeeDto.builder()
+                .id(100L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@gmail.com")
+                .build();
+    }
+
+    // JUnit Test for createEmployee method
+    @Test
+    @DisplayName("JUnit Test for createEmployee method")
+    public void givenEmployeeDto_whenCreateEmployee_thenReturnCreatedEmployeeDto() {
+        // given - precondition ot setup
+        CreateEmployeeDto createEmployeeDto = CreateEmployeeDto.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@gmail.com")
+                .build();
+
+        EmployeeDto employeeDto = EntityDtoUtil.toDto(createEmployeeDto);
+        employeeDto.setId(100L);
+
+        given(employeeService.createEmployee(ArgumentMatchers.any(EmployeeDto.class))).willReturn(Mono.just(employeeDto));
+
+        // when - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createEmployeeDto)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(employeeDto.getFirstName())
+                .jsonPath("$.lastName").isEqualTo(employeeDto.getLastName())
+                .jsonPath("$.email").isEqualTo(employeeDto.getEmail())
+                .jsonPath("$.id").isEqualTo(100);
+    }
+
+    // JUnit Test for Get All Employees method streamed as NDJSON
+    @Test
+    @DisplayName("JUnit Test for Get All Employees method streamed as NDJSON")
+    public void givenFluxOfEmployees_whenCallGetAllEmployeesAsNdjson_thenStreamAllEmployees() {
+        // given - precondition ot setup
+        EmployeeDto jane = john().copyOf();
+        jane.setId(101L);
+        jane.setFirstName("Jane");
+
+        given(employeeService.readAllEmployees()).willReturn(Flux.just(john(), jane));
+
+        // when - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(EmployeeDto.class)
+                .hasSize(2)
+                .contains(john(), jane);
+    }
+
+    // JUnit Test for Get Employee By Id method
+    @Test
+    @DisplayName("JUnit Test for Get Employee By Id method")
+    public void givenEmployeeDto_whenCallGetEmployeeById_thenReturnEmployeeDto() {
+        // given - precondition ot setup
+        given(employeeService.readEmployee(100L)).willReturn(Mono.just(john()));
+        given(employeeService.readEmployee(200L)).willReturn(Mono.empty());
+
+        // Positive Scenario
+        webTestClient.get().uri("/api/v1/employees/{id}", 100L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(100)
+                .jsonPath("$.firstName").isEqualTo("John");
+
+        // Negative Scenario
+        webTestClient.get().uri("/api/v1/employees/200")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    // JUnit Test for Update Employee method
+    @Test
+    @DisplayName("JUnit Test for Update Employee method")
+    public void givenEmployeeDto_whenUpdateEmployee_thenReturnUpdatedEmployeeDto() {
+        // given - precondition ot setup
+        EmployeeDto updatedEmployeeDto = john();
+        updatedEmployeeDto.setEmail("john@doe.com");
+
+        given(employeeService.updateEmployee(ArgumentMatchers.any(EmployeeDto.class)))
+                .willReturn(Mono.just(updatedEmployeeDto));
+
+        // when - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedEmployeeDto)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("john@doe.com");
+    }
+
+    // JUnit Test for Delete Employee method
+    @Test
+    @DisplayName("JUnit Test for Delete Employee method")
+    public void givenEmployeeDto_whenDeleteEmployee_thenReturnOk() {
+        // given - precondition ot setup
+        given(employeeService.deleteEmployee(100L)).willReturn(Mono.empty());
+
+        // when - action or the behaviour that we are going to test
+        webTestClient.delete().uri("/api/v1/employees/{id}", 100L)
+                .exchange()
+                // then - verify the output
+                .expectStatus().isOk();
+    }
+
+    // JUnit Test for the tenant of a reactive request
+    @Test
+    @DisplayName("JUnit Test for the tenant of a reactive request")
+    public void givenTenantHeader_whenCallGetEmployeeById_thenServiceSeesTheTenant() {
+        // given - precondition ot setup
+        given(employeeService.readEmployee(100L)).willReturn(ReactiveTenantFilter.currentTenant()
+                .map(tenantId -> {
+                    EmployeeDto employeeDto = john();
+                    employeeDto.setLastName(tenantId);
+                    return employeeDto;
+                }));
+
+        // when - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec tenantA = webTestClient.get().uri("/api/v1/employees/{id}", 100L)
+                .header("X-Tenant-Id", "tenant-a")
+                .exchange();
+        WebTestClient.ResponseSpec noTenant = webTestClient.get().uri("/api/v1/employees/{id}", 100L)
+                .exchange();
+        WebTestClient.ResponseSpec invalid = webTestClient.get().uri("/api/v1/employees/{id}", 100L)
+                .header("X-Tenant-Id", "no/such tenant")
+                .exchange();
+
+        // then - verify the output
+        tenantA.expectStatus().isOk()
+                .expectHeader().valueEquals("Vary", "X-Tenant-Id")
+                .expectBody().jsonPath("$.lastName").isEqualTo("tenant-a");
+        noTenant.expectStatus().isOk()
+                .expectBody().jsonPath("$.lastName").isEqualTo("default");
+        invalid.expectStatus().isBadRequest();
+    }
+}
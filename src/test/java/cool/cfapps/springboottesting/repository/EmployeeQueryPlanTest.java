@@ -0,0 +1,71 @@
+package cool.cfapps.springboottesting.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ Checks that the finder queries of EmployeeRepository are answered from an index instead of a table scan.
+ The schema comes from the Flyway migrations of the mode, the MySQL scripts run in H2's MySQL compatibility mode.
+ */
+class EmployeeQueryPlanTest {
+
+    // Hibernate adds the tenant of the request (@TenantId) to every employee query
+    private static final String FIND_BY_EMAIL =
+            "SELECT * FROM employees e WHERE e.tenant_id = 'default' AND e.email = 'john@doe.com'";
+    private static final String FIND_BY_NAME =
+            "SELECT * FROM employees e WHERE e.first_name = 'John' AND e.last_name = 'Doe'";
+
+    private String explain(String mode, String sql) throws SQLException {
+        String url = "jdbc:h2:mem:plans_" + mode + ";DB_CLOSE_DELAY=-1"
+                + ("mysql".equals(mode) ? ";MODE=MySQL;DATABASE_TO_LOWER=TRUE" : "");
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration/" + mode)
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            plan.next();
+            return plan.getString(1).toLowerCase();
+        }
+    }
+
+    // JUnit Test for findByEmail query plan
+    @DisplayName("JUnit Test for findByEmail query plan")
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "mysql"})
+    public void givenMigratedSchema_whenExplainFindByEmail_thenUseUniqueEmailIndex(String mode) throws SQLException {
+        // when - action or the behaviour that we are going to test
+        String plan = explain(mode, FIND_BY_EMAIL);
+
+        // then - verify the output
+        assertThat(plan).contains("ux_employees_tenant_id_email");
+        assertThat(plan).doesNotContain("tablescan");
+    }
+
+    // JUnit Test for findByJPQL / findByNativeSql query plan
+    @DisplayName("JUnit Test for findByJPQL / findByNativeSql query plan")
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "mysql"})
+    public void givenMigratedSchema_whenExplainFindByName_thenUseNameIndex(String mode) throws SQLException {
+        // when - action or the behaviour that we are going to test
+        String plan = explain(mode, FIND_BY_NAME);
+
+        // then - verify the output
+        assertThat(plan).contains("ix_employees_last_name_first_name");
+        assertThat(plan).doesNotContain("tablescan");
+    }
+}
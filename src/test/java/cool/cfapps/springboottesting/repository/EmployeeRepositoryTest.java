@@ -1,14 +1,20 @@
 package cool.cfapps.springboottesting.repository;
 
+import cool.cfapps.springboottesting.dto.EmployeeDto;
 import cool.cfapps.springboottesting.entity.Employee;
 // Static import to improve code length
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +25,8 @@ class EmployeeRepositoryTest {
 
     @Autowired
     private EmployeeRepository employeeRepository;
+    @Autowired
+    private TestEntityManager entityManager;
 
     /*
     Warning: OpenJDK 64-Bit Server VM warning: Sharing is only supported for
@@ -278,4 +286,115 @@ class EmployeeRepositoryTest {
         assertThat(savedEmployee).isNotNull();
     }
 
-}
\ No newline at end of file
+    // JUnit Test for bulk delete Employee operation
+    @DisplayName("JUnit Test for bulk delete Employee operation")
+    @Test
+    public void givenEmployeeObjects_whenDeleteAllByIdIn_thenRemoveOnlyThoseEmployees() {
+        // given - precondition ot setup
+        Employee employeeTwo = Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane@doe.com")
+                .build();
+
+        employeeRepository.saveAll(List.of(employeeOne, employeeTwo));
+
+        // when - action or the behaviour that we are going to test
+        int deleted = employeeRepository.deleteAllByIdIn(List.of(employeeOne.getId(), 999_999L));
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(employeeRepository.findAll()).containsExactly(employeeTwo);
+    }
+
+    // JUnit Test for conditional update Employee operation
+    @DisplayName("JUnit Test for conditional update Employee operation")
+    @Test
+    public void givenEmployeeObject_whenUpdateByIdAndVersion_thenOnlyCurrentVersionIsUpdated() {
+        // given - precondition ot setup
+        employeeRepository.saveAndFlush(employeeOne);
+        long version = employeeOne.getVersion();
+
+        // when - action or the behaviour that we are going to test
+        int staleUpdate = employeeRepository.updateByIdAndVersion(employeeOne.getId(), version + 1,
+                "Jonny", "Doe", "john@doe.com");
+        int currentUpdate = employeeRepository.updateByIdAndVersion(employeeOne.getId(), version,
+                "Jonny", "Doe", "john@doe.com");
+
+        // then - verify the output
+        assertThat(staleUpdate).isEqualTo(0);
+        assertThat(currentUpdate).isEqualTo(1);
+        assertThat(employeeRepository.deleteEmployeeById(employeeOne.getId())).isEqualTo(1);
+        assertThat(employeeRepository.deleteEmployeeById(employeeOne.getId())).isEqualTo(0);
+    }
+
+    // JUnit Test for reading the version after an unconditional update
+    @DisplayName("JUnit Test for reading the version after an unconditional update")
+    @Test
+    public void givenEmployeeObject_whenUpdateById_thenFindVersionByIdReturnsNextVersion() {
+        // given - precondition ot setup
+        employeeRepository.saveAndFlush(employeeOne);
+        long version = employeeOne.getVersion();
+
+        // when - action or the behaviour that we are going to test
+        int updated = employeeRepository.updateById(employeeOne.getId(), "Jonny", "Doe", "john@doe.com");
+
+        // then - verify the output
+        assertThat(updated).isEqualTo(1);
+        assertThat(employeeRepository.findVersionById(employeeOne.getId())).contains(version + 1);
+    }
+
+    // JUnit Test for EmployeeDto projection operations
+    @DisplayName("JUnit Test for EmployeeDto projection operations")
+    @Test
+    public void givenEmployeeObjects_whenFindDtos_thenReturnDtosWithoutManagedEntities() {
+        // given - precondition ot setup
+        Employee employeeTwo = Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane@doe.com")
+                .build();
+
+        employeeRepository.saveAllAndFlush(List.of(employeeOne, employeeTwo));
+        entityManager.clear();
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeDto> employees = employeeRepository.findAllDtos();
+        List<EmployeeDto> page = employeeRepository.findDtosByIdGreaterThan(employeeOne.getId(), PageRequest.ofSize(10));
+        Optional<EmployeeDto> byId = employeeRepository.findDtoById(employeeOne.getId());
+        Optional<EmployeeDto> byEmail = employeeRepository.findDtoByEmail("jane@doe.com");
+
+        // then - verify the output
+        assertThat(employees).extracting(EmployeeDto::getEmail).containsExactly("john@doe.com", "jane@doe.com");
+        assertThat(page).extracting(EmployeeDto::getId).containsExactly(employeeTwo.getId());
+        assertThat(byId).hasValueSatisfying(dto -> {
+            assertThat(dto.getFirstName()).isEqualTo("John");
+            assertThat(dto.getVersion()).isEqualTo(employeeOne.getVersion());
+        });
+        assertThat(byEmail.map(EmployeeDto::getId)).contains(employeeTwo.getId());
+        assertThat(entityManager.getEntityManager().contains(employeeOne)).isFalse();
+        assertThat(entityManager.getEntityManager().unwrap(Session.class)
+                .getStatistics().getEntityCount()).isEqualTo(0);
+    }
+
+    // JUnit Test for save Employee with an email that is taken (BDD Style given when then)
+    @DisplayName("JUnit Test for save Employee with an email that is taken")
+    @Test
+    public void givenEmployeeWithSameEmail_whenSave_thenThrowDataIntegrityViolation() {
+        // given - precondition ot setup
+        employeeRepository.saveAndFlush(employeeOne);
+        Employee employeeTwo = Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("john@doe.com")
+                .build();
+
+        // when - action or the behaviour that we are going to test
+        // then - verify the output
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(employeeTwo))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .satisfies(e -> assertThat(((DataIntegrityViolationException) e).getMostSpecificCause().getMessage())
+                        .containsIgnoringCase("ux_employees_tenant_id_email"));
+    }
+
+}
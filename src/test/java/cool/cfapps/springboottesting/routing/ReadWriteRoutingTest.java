@@ -0,0 +1,114 @@
+package cool.cfapps.springboottesting.routing;
+
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// two H2 databases stand in for primary and replica; nothing replicates, so every row tells where it was read
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingprimary;DB_CLOSE_DELAY=-1",
+        "employees.replica.enabled=true",
+        "employees.replica.url=" + ReadWriteRoutingTest.REPLICA_URL,
+        "employees.replica.username=sa"
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(replicaDataSource).locations("classpath:db/migration/h2").load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("DELETE FROM employees");
+        replica.update("INSERT INTO employees (id, first_name, last_name, email, version) " +
+                "VALUES (900001, 'Rita', 'Replica', 'rita@replica.com', 0)");
+        // outside a transaction: the primary
+        jdbcTemplate.update("DELETE FROM employees");
+        jdbcTemplate.update("INSERT INTO employees (id, first_name, last_name, email, version) " +
+                "VALUES (900001, 'Paul', 'Primary', 'paul@primary.com', 0)");
+    }
+
+    // JUnit Test for list reads served by the replica
+    @DisplayName("JUnit Test for list reads served by the replica")
+    @Test
+    public void givenReplica_whenReadAllEmployees_thenReadFromReplicaWithoutETag() throws Exception {
+        // given - precondition ot setup
+        String url = "/api/v1/employees";
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(get(url))
+
+                // then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].lastName").value("Replica"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    // JUnit Test for reading the own writes from the primary
+    @DisplayName("JUnit Test for reading the own writes from the primary")
+    @Test
+    public void givenWrite_whenReadWithCookie_thenReadFromPrimary() throws Exception {
+        // given - precondition ot setup
+        Cookie cookie = mockMvc.perform(post("/api/v1/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Wendy\",\"lastName\":\"Writer\",\"email\":\"wendy@primary.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(get("/api/v1/employees").cookie(cookie))
+
+                // then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].lastName", containsInAnyOrder("Primary", "Writer")))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+        mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(jsonPath("$[0].lastName").value("Replica"));
+        assertThat(cookie).isNotNull();
+        assertThat(Long.parseLong(cookie.getValue())).isGreaterThan(System.currentTimeMillis());
+    }
+
+    // JUnit Test for cache misses being loaded from the primary
+    @DisplayName("JUnit Test for cache misses being loaded from the primary")
+    @Test
+    public void givenCachedLookup_whenReadEmployee_thenLoadedFromPrimary() throws Exception {
+        // given - precondition ot setup
+        String url = "/api/v1/employees/900001";
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(get(url))
+
+                // then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("Primary"));
+    }
+}
@@ -0,0 +1,65 @@
+package cool.cfapps.springboottesting.search;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = EmployeeSearchIndex.build(consumer -> {
+            consumer.accept(new EmployeeDto(1L, "Ann", "Miller", "ann.miller@doe.com", 0L));
+            consumer.accept(new EmployeeDto(2L, "Joanna", "Annan", "jo@doe.com", 0L));
+            consumer.accept(new EmployeeDto(3L, "Hannah", "Schmidt", "annie.s@doe.com", 0L));
+            consumer.accept(new EmployeeDto(4L, "Peter", "M\u00fcller", "peter@doe.com", 0L));
+            consumer.accept(new EmployeeDto(5L, "Annabelle", "Miller", "belle@doe.com", 0L));
+        });
+    }
+
+    // JUnit Test for prefix search ranking
+    @DisplayName("JUnit Test for prefix search ranking")
+    @Test
+    public void givenIndexedEmployees_whenSearchPrefix_thenReturnRankedMatches() {
+        // when - action or the behaviour that we are going to test
+        List<EmployeeDto> result = index.search("ann", 10);
+
+        // then - verify the output: last name prefix, first name exact, first name prefix, email prefix
+        assertThat(result).extracting(EmployeeDto::getId).containsExactly(1L, 2L, 5L, 3L);
+    }
+
+    // JUnit Test for multi term search without diacritics
+    @DisplayName("JUnit Test for multi term search without diacritics")
+    @Test
+    public void givenIndexedEmployees_whenSearchTwoTerms_thenReturnEmployeesMatchingBoth() {
+        assertThat(index.search("Mil ann", 10)).extracting(EmployeeDto::getId).containsExactly(1L, 5L);
+        assertThat(index.search("muller", 10)).extracting(EmployeeDto::getId).containsExactly(4L);
+        assertThat(index.search("M\u00dcL", 10)).extracting(EmployeeDto::getId).containsExactly(4L);
+        assertThat(index.search("doe", 10)).isEmpty();
+        assertThat(index.search(" ", 10)).isEmpty();
+    }
+
+    // JUnit Test for index updates
+    @DisplayName("JUnit Test for index updates")
+    @Test
+    public void givenIndexedEmployee_whenUpdateAndRemove_thenSearchReflectsChanges() {
+        // when - action or the behaviour that we are going to test
+        index.index(new EmployeeDto(4L, "Peter", "Anders", "peter@doe.com", 1L));
+        index.remove(1L);
+
+        // then - verify the output
+        assertThat(index.search("m\u00fcller", 10)).isEmpty();
+        assertThat(index.search("anders", 10)).extracting(EmployeeDto::getVersion).containsExactly(1L);
+        assertThat(index.search("ann", 10)).extracting(EmployeeDto::getId).containsExactly(2L, 5L, 3L);
+        assertThat(index.search("ann", 2)).hasSize(2);
+        assertThat(index.size()).isEqualTo(4);
+    }
+}
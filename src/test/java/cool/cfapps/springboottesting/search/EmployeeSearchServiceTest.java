@@ -0,0 +1,54 @@
+package cool.cfapps.springboottesting.search;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.service.EmployeeBatchService;
+import cool.cfapps.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:searchtest;DB_CLOSE_DELAY=-1")
+class EmployeeSearchServiceTest {
+
+    @Autowired
+    private EmployeeSearchService employeeSearchService;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeBatchService employeeBatchService;
+
+    // JUnit Test for keeping the search index in sync with writes
+    @DisplayName("JUnit Test for keeping the search index in sync with writes")
+    @Test
+    public void givenEmployeeWrites_whenSearch_thenIndexFollowsTheWrites() {
+        // given - precondition ot setup
+        employeeSearchService.buildIndex();
+        EmployeeDto created = employeeService.createEmployee(EmployeeDto.builder()
+                .firstName("Zacharias")
+                .lastName("Zorn")
+                .email("zz@doe.com")
+                .build());
+        employeeBatchService.createEmployees(List.of(
+                EmployeeDto.builder().firstName("Zelda").lastName("Zorn").email("zelda@doe.com").build(),
+                EmployeeDto.builder().firstName("Zoe").lastName("Zorn").email("zoe@doe.com").build()));
+        assertThat(employeeSearchService.search("zorn", 10)).hasSize(3);
+
+        // when - action or the behaviour that we are going to test
+        EmployeeDto renamed = created.copyOf();
+        renamed.setLastName("Zeller");
+        employeeService.updateEmployee(renamed);
+        employeeService.deleteEmployee(employeeSearchService.search("zelda", 1).get(0).getId());
+
+        // then - verify the output
+        assertThat(employeeSearchService.search("zorn", 10)).extracting(EmployeeDto::getFirstName)
+                .containsExactly("Zoe");
+        assertThat(employeeSearchService.search("zel", 10)).extracting(EmployeeDto::getFirstName)
+                .containsExactly("Zacharias");
+    }
+}
@@ -1,10 +1,15 @@
 package cool.cfapps.springboottesting.service;
 
+import cool.cfapps.springboottesting.cache.EmployeeCache;
+import cool.cfapps.springboottesting.cache.EmployeeCacheProperties;
+import cool.cfapps.springboottesting.cache.InMemoryCacheInvalidationChannel;
 import cool.cfapps.springboottesting.dto.EmployeeDto;
 import cool.cfapps.springboottesting.entity.Employee;
 import cool.cfapps.springboottesting.exception.ResourceNotFoundException;
 import cool.cfapps.springboottesting.repository.EmployeeRepository;
+import cool.cfapps.springboottesting.shard.ShardedEmployeeStore;
 import cool.cfapps.springboottesting.util.EntityDtoUtil;
+import cool.cfapps.springboottesting.util.SingleFlight;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 
@@ -12,27 +17,52 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 // Static import to improve code length
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @ExtendWith(MockitoExtension.class)
 public class EmployeeServiceTest {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private EmployeeCache employeeCache =
+            new EmployeeCache(new EmployeeCacheProperties(), new InMemoryCacheInvalidationChannel());
+    @Spy
+    private EmployeeReadProperties readProperties = new EmployeeReadProperties();
     @InjectMocks
     private EmployeeService employeeService;
 
@@ -95,8 +125,8 @@ public class EmployeeServiceTest {
         updateEmployeeDto.setFirstName("Jonny");
         updateEmployeeDto.setEmail("john.doe@gmail.com");
 
-        given(employeeRepository.save(EntityDtoUtil.toEntity(updateEmployeeDto))).willReturn(EntityDtoUtil.toEntity(updateEmployeeDto));
-        given(employeeRepository.findById(1L)).willReturn(Optional.of(EntityDtoUtil.toEntity(savedEmployeeDto)));
+        given(employeeRepository.updateById(1L, "Jonny", "Doe", "john.doe@gmail.com")).willReturn(1);
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(5L));
 
         // when - action or the behaviour that we are going to test
         EmployeeDto updatedEmployeeDto = employeeService.updateEmployee(updateEmployeeDto);
@@ -106,6 +136,7 @@ public class EmployeeServiceTest {
         assertThat(updatedEmployeeDto.getId()).isGreaterThan(0);
         assertThat(updatedEmployeeDto.getFirstName()).isEqualTo("Jonny");
         assertThat(updatedEmployeeDto.getEmail()).isEqualTo("john.doe@gmail.com");
+        assertThat(updatedEmployeeDto.getVersion()).isEqualTo(5L);
     }
 
     // JUnit Test for readAllEmployees method (positive)
@@ -113,11 +144,9 @@ public class EmployeeServiceTest {
     @DisplayName("JUnit Test for readAllEmployees method (positive)")
     public void givenListOfEmployees_whenReadAll_thenReturnListOfEmployeeObjects() {
         // given - precondition ot setup
-        List<Employee> result = List.of(
-                EntityDtoUtil.toEntity(savedEmployeeDto),
-                EntityDtoUtil.toEntity(employeeTwoDto));
+        List<EmployeeDto> result = List.of(savedEmployeeDto, employeeTwoDto);
 
-        given(employeeRepository.findAll()).willReturn(result);
+        given(employeeRepository.findAllDtos()).willReturn(result);
 
         // when - action or the behaviour that we are going to test
         List<EmployeeDto> employeesDto = employeeService.readAllEmployees();
@@ -133,7 +162,7 @@ public class EmployeeServiceTest {
     public void givenEmptyListOfEmployees_whenReadAll_thenReturnEmptyListObjects() {
         // given - precondition ot setup
 
-        given(employeeRepository.findAll()).willReturn(Collections.emptyList());
+        given(employeeRepository.findAllDtos()).willReturn(Collections.emptyList());
 
         // when - action or the behaviour that we are going to test
         List<EmployeeDto> employeesDto = employeeService.readAllEmployees();
@@ -143,6 +172,22 @@ public class EmployeeServiceTest {
         assertThat(employeesDto.size()).isEqualTo(0);
     }
 
+    // JUnit Test for readEmployeesAfter method (keyset page)
+    @Test
+    @DisplayName("JUnit Test for readEmployeesAfter method (keyset page)")
+    public void givenEmployeesAfterId_whenReadPage_thenReturnPageOfEmployeeObjects() {
+        // given - precondition ot setup
+        given(employeeRepository.findDtosByIdGreaterThan(eq(1L), any()))
+                .willReturn(List.of(employeeTwoDto));
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeDto> employeesDto = employeeService.readEmployeesAfter(1L, 10);
+
+        // then - verify the output
+        assertThat(employeesDto).hasSize(1);
+        assertThat(employeesDto.get(0).getId()).isEqualTo(2L);
+    }
+
     // JUnit Test for updateEmployees method with none existing ID
     @Test
     @DisplayName("JUnit Test for updateEmployees method with none existing ID")
@@ -151,13 +196,46 @@ public class EmployeeServiceTest {
         EmployeeDto wrongEmployeeDto = savedEmployeeDto.copyOf();
         wrongEmployeeDto.setId(100L);
 
-        given(employeeRepository.findById(wrongEmployeeDto.getId())).willReturn(Optional.empty());
+        given(employeeRepository.updateById(100L, "John", "Doe", "john@doe.com")).willReturn(0);
 
         // when - action or the behaviour that we are going to test
         Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.updateEmployee(wrongEmployeeDto));
 
     }
 
+    // JUnit Test for updateEmployee method with a stale version
+    @Test
+    @DisplayName("JUnit Test for updateEmployee method with a stale version")
+    public void givenEmployeeWithStaleVersion_whenUpdate_thenExpectOptimisticLockingFailure() {
+        // given - precondition ot setup
+        EmployeeDto staleEmployeeDto = savedEmployeeDto.copyOf();
+        staleEmployeeDto.setVersion(3L);
+
+        given(employeeRepository.updateByIdAndVersion(1L, 3L, "John", "Doe", "john@doe.com")).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+
+        // when - action or the behaviour that we are going to test
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> employeeService.updateEmployee(staleEmployeeDto));
+    }
+
+    // JUnit Test for updateEmployee method with a matching version
+    @Test
+    @DisplayName("JUnit Test for updateEmployee method with a matching version")
+    public void givenEmployeeWithCurrentVersion_whenUpdate_thenReturnNextVersion() {
+        // given - precondition ot setup
+        EmployeeDto currentEmployeeDto = savedEmployeeDto.copyOf();
+        currentEmployeeDto.setVersion(3L);
+
+        given(employeeRepository.updateByIdAndVersion(1L, 3L, "John", "Doe", "john@doe.com")).willReturn(1);
+
+        // when - action or the behaviour that we are going to test
+        EmployeeDto updatedEmployeeDto = employeeService.updateEmployee(currentEmployeeDto);
+
+        // then - verify the output
+        assertThat(updatedEmployeeDto.getVersion()).isEqualTo(4L);
+    }
+
     // JUnit Test for readEmployee by id operation
     @Test
     public void givenEmployeeId_whenReadingEmployee_thenReturnEmployeeObject() {
@@ -165,7 +243,7 @@ public class EmployeeServiceTest {
         long employeeId = 1L;
 
         // when - action or the behaviour that we are going to test
-        given(employeeRepository.findById(employeeId)).willReturn(Optional.of(EntityDtoUtil.toEntity(savedEmployeeDto)));
+        given(employeeRepository.findDtoById(employeeId)).willReturn(Optional.of(savedEmployeeDto));
         Optional<EmployeeDto> returnedEmployeeDto = employeeService.readEmployee(employeeId);
 
         // then - verify the output
@@ -174,6 +252,49 @@ public class EmployeeServiceTest {
         assertThat(returnedEmployeeDto.get().getId()).isEqualTo(1L);
     }
 
+    // JUnit Test for readEmployee served from the cache
+    @Test
+    @DisplayName("JUnit Test for readEmployee served from the cache")
+    public void givenCachedEmployee_whenReadingEmployeeTwice_thenHitDatabaseOnce() {
+        // given - precondition ot setup
+        given(employeeRepository.findDtoById(1L)).willReturn(Optional.of(savedEmployeeDto));
+
+        // when - action or the behaviour that we are going to test
+        employeeService.readEmployee(1L);
+        Optional<EmployeeDto> returnedEmployeeDto = employeeService.readEmployee(1L);
+
+        // then - verify the output
+        assertThat(returnedEmployeeDto).contains(savedEmployeeDto);
+        verify(employeeRepository, times(1)).findDtoById(1L);
+    }
+
+    // JUnit Test for readEmployeeByEmail with a stale email entry
+    @Test
+    @DisplayName("JUnit Test for readEmployeeByEmail with a stale email entry")
+    public void givenEmailMovedToOtherEmployee_whenReadingByEmail_thenReturnCurrentOwner() {
+        // given - precondition ot setup
+        EmployeeDto movedEmployeeDto = savedEmployeeDto.copyOf();
+        movedEmployeeDto.setEmail("john.doe@gmail.com");
+        EmployeeDto newOwnerDto = employeeTwoDto.copyOf();
+        newOwnerDto.setEmail(savedEmployeeDto.getEmail());
+
+        given(employeeRepository.findDtoByEmail(savedEmployeeDto.getEmail()))
+                .willReturn(Optional.of(savedEmployeeDto.copyOf()))
+                .willReturn(Optional.of(newOwnerDto));
+        employeeService.readEmployeeByEmail(savedEmployeeDto.getEmail());
+
+        // the email changes hands and the old owner is evicted by the update event
+        given(employeeRepository.findDtoById(1L)).willReturn(Optional.of(movedEmployeeDto));
+        employeeCache.evict(1L);
+
+        // when - action or the behaviour that we are going to test
+        Optional<EmployeeDto> returnedEmployeeDto = employeeService.readEmployeeByEmail(savedEmployeeDto.getEmail());
+
+        // then - verify the output
+        assertThat(returnedEmployeeDto).isPresent();
+        assertThat(returnedEmployeeDto.get().getId()).isEqualTo(2L);
+    }
+
     // JUnit Test for
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenDoNothing() {
@@ -181,19 +302,148 @@ public class EmployeeServiceTest {
         long employeeId = 1L;
 
         // when - action or the behaviour that we are going to test
-        // mock return employee true before deletion (first invocation)
-        given(employeeRepository.findById(employeeId)).willReturn(Optional.of(EntityDtoUtil.toEntity(savedEmployeeDto)));
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        // mock one deleted row, the delete does not read the employee first
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
 
         employeeService.deleteEmployee(employeeId);
-        // mock return employee false after deletion (second invocation)
-        given(employeeRepository.findById(employeeId)).willReturn(Optional.empty());
+        // mock return employee false after deletion
+        given(employeeRepository.findDtoById(employeeId)).willReturn(Optional.empty());
 
         // then - verify the output
         assertThat(employeeService.readEmployee(employeeId).isPresent()).isFalse();
-        // then - verify the output how many invocations -> expected 2 invocations
-        verify(employeeRepository, times(2)).findById(employeeId);
+        // then - verify the output how many invocations -> expected 1 invocation (the read after the delete)
+        verify(employeeRepository, times(1)).findDtoById(employeeId);
+
+
+    }
+
+    // JUnit Test for concurrent readEmployee calls of the same id sharing one query
+    @Test
+    @DisplayName("JUnit Test for concurrent readEmployee calls of the same id sharing one query")
+    public void givenQueryInFlight_whenReadSameEmployee_thenQueriedOnce() throws Exception {
+        // given - precondition ot setup
+        EmployeeService uncachedService = uncachedService(new EmployeeReadProperties());
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeRepository.findDtoById(1L)).willAnswer(invocation -> {
+            queried.countDown();
+            release.await();
+            return Optional.of(savedEmployeeDto);
+        });
+        List<Optional<EmployeeDto>> results = new CopyOnWriteArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        readers.add(startReader(() -> results.add(uncachedService.readEmployee(1L))));
+        assertThat(queried.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when - action or the behaviour that we are going to test
+        for (int i = 0; i < 3; i++) {
+            readers.add(startReader(() -> results.add(uncachedService.readEmployee(1L))));
+        }
+        awaitWaiting(readers.subList(1, readers.size()));
+        release.countDown();
+        for (Thread reader : readers) {
+            reader.join(5000);
+        }
+
+        // then - verify the output
+        assertThat(results).hasSize(4).allSatisfy(result -> assertThat(result).contains(savedEmployeeDto));
+        verify(employeeRepository, times(1)).findDtoById(1L);
+    }
+
+    // JUnit Test for readEmployee calls of different ids merged into one IN query while the database is busy
+    @Test
+    @DisplayName("JUnit Test for readEmployee calls of different ids merged into one IN query")
+    public void givenQueryInFlight_whenReadOtherEmployees_thenQueriedInOneBatch() throws Exception {
+        // given - precondition ot setup
+        EmployeeReadProperties batching = new EmployeeReadProperties();
+        batching.setBatchWindow(Duration.ofSeconds(5));
+        batching.setMaxBatchSize(3);
+        EmployeeService uncachedService = uncachedService(batching);
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeRepository.findDtoById(1L)).willAnswer(invocation -> {
+            queried.countDown();
+            release.await();
+            return Optional.of(savedEmployeeDto);
+        });
+        given(employeeRepository.findDtosByIdIn(anyCollection())).willAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream()
+                        .map(id -> EmployeeDto.builder().id(id).firstName("Jane").lastName("Doe").build())
+                        .toList());
+        Map<Long, Optional<EmployeeDto>> results = new ConcurrentHashMap<>();
+        Thread busy = startReader(() -> results.put(1L, uncachedService.readEmployee(1L)));
+        assertThat(queried.await(5, TimeUnit.SECONDS)).isTrue();
 
+        // when - action or the behaviour that we are going to test
+        List<Thread> readers = new ArrayList<>();
+        for (long id = 2; id <= 4; id++) {
+            long employeeId = id;
+            readers.add(startReader(() -> results.put(employeeId, uncachedService.readEmployee(employeeId))));
+        }
+        for (Thread reader : readers) {
+            reader.join(5000);
+        }
+        release.countDown();
+        busy.join(5000);
+
+        // then - verify the output
+        assertThat(results).hasSize(4);
+        assertThat(results.get(3L)).hasValueSatisfying(employee -> assertThat(employee.getId()).isEqualTo(3L));
+        verify(employeeRepository, times(1)).findDtosByIdIn(argThat(ids -> ids.containsAll(List.of(2L, 3L, 4L))));
+        verify(employeeRepository, never()).findDtoById(3L);
+    }
+
+    // JUnit Test for an EmployeeService over the shards
+    @Test
+    @DisplayName("JUnit Test for an EmployeeService over the shards")
+    public void givenShardedStore_whenReadAndUpdate_thenShardsAreUsed() {
+        // given - precondition ot setup
+        ShardedEmployeeStore shardedEmployeeStore = mock(ShardedEmployeeStore.class);
+        EmployeeService shardedService = new EmployeeService(employeeRepository, null, employeeCache, eventPublisher,
+                readProperties, null, shardedEmployeeStore);
+        EmployeeDto staleEmployeeDto = employeeTwoDto.copyOf();
+        staleEmployeeDto.setVersion(1L);
+        given(shardedEmployeeStore.findById(2L)).willReturn(Optional.of(employeeTwoDto));
+        given(shardedEmployeeStore.findAfter(1L, 10)).willReturn(List.of(employeeTwoDto));
+        given(shardedEmployeeStore.update(staleEmployeeDto)).willReturn(false);
+
+        // when - action or the behaviour that we are going to test
+        Optional<EmployeeDto> byId = shardedService.readEmployee(2L);
+        List<EmployeeDto> page = shardedService.readEmployeesAfter(1L, 10);
+
+        // then - verify the output
+        assertThat(byId).contains(employeeTwoDto);
+        assertThat(page).containsExactly(employeeTwoDto);
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> shardedService.updateEmployee(staleEmployeeDto));
+        verifyNoInteractions(employeeRepository, eventPublisher);
+    }
+
+    private EmployeeService uncachedService(EmployeeReadProperties readProperties) {
+        EmployeeCacheProperties cacheProperties = new EmployeeCacheProperties();
+        cacheProperties.setEnabled(false);
+        return new EmployeeService(employeeRepository, null,
+                new EmployeeCache(cacheProperties, new InMemoryCacheInvalidationChannel()), eventPublisher,
+                readProperties, null, null);
+    }
+
+    private static Thread startReader(Runnable read) {
+        Thread reader = new Thread(read);
+        reader.start();
+        return reader;
+    }
+
+    // the readers are parked in the SingleFlight once they wait for the query in flight
+    private static void awaitWaiting(List<Thread> readers) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!readers.stream().allMatch(EmployeeServiceTest::waitsForFlight)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
 
+    private static boolean waitsForFlight(Thread reader) {
+        return reader.getState() == Thread.State.WAITING && Arrays.stream(reader.getStackTrace())
+                .anyMatch(frame -> frame.getClassName().equals(SingleFlight.class.getName()));
     }
 }
@@ -0,0 +1,71 @@
+package cool.cfapps.springboottesting.shard;
+
+import cool.cfapps.springboottesting.outbox.EmployeeChangeLog;
+import cool.cfapps.springboottesting.search.EmployeeSearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardedapp;DB_CLOSE_DELAY=-1",
+        "employees.shards.enabled=true",
+        "employees.shards.urls=jdbc:h2:mem:shardedapp0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shardedapp1;DB_CLOSE_DELAY=-1",
+        "employees.shards.username=sa"
+})
+@AutoConfigureMockMvc
+class ShardedApplicationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    // JUnit Test for the endpoints that bypass the shards
+    @DisplayName("JUnit Test for the endpoints that bypass the shards")
+    @Test
+    public void givenShards_whenCallSpringDatasourceEndpoints_thenTheyAreLeftOut() throws Exception {
+        // given - precondition ot setup
+        String employee = "{\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"john@doe.com\"}";
+
+        // when - action or the behaviour that we are going to test
+        String created = mockMvc.perform(post("/api/v1/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(employee))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        // then - verify the output: the left out paths fall through to /{id}
+        String id = created.replaceAll(".*\"id\":(\\d+).*", "$1");
+        mockMvc.perform(get("/api/v1/employees/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("john@doe.com"));
+        mockMvc.perform(post("/api/v1/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + employee + "]"))
+                .andExpect(status().isMethodNotAllowed());
+        mockMvc.perform(post("/api/v1/employees/import")
+                        .contentType("text/csv")
+                        .content("first_name,last_name,email\nJane,Doe,jane@doe.com\n"))
+                .andExpect(status().isMethodNotAllowed());
+        mockMvc.perform(post("/api/v1/employees/exports"))
+                .andExpect(status().isMethodNotAllowed());
+        mockMvc.perform(get("/api/v1/employees/changes"))
+                .andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/api/v1/employees").param("q", "john"))
+                .andExpect(status().isNotFound());
+        assertThat(applicationContext.getBeanNamesForType(EmployeeChangeLog.class)).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(EmployeeSearchService.class)).isEmpty();
+    }
+}
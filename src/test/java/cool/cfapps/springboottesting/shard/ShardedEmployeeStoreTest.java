@@ -0,0 +1,196 @@
+package cool.cfapps.springboottesting.shard;
+
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import cool.cfapps.springboottesting.tenant.TenantContext;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedEmployeeStoreTest {
+
+    private static final int SHARDS = 3;
+
+    private final List<JdbcDataSource> dataSources = new ArrayList<>();
+    private ShardedEmployeeStore store;
+
+    @BeforeEach
+    public void setUp() {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            JdbcDataSource h2 = new JdbcDataSource();
+            h2.setURL("jdbc:h2:mem:shard" + shard + ";DB_CLOSE_DELAY=-1");
+            Flyway.configure().dataSource(h2).locations("classpath:db/migration/h2").load().migrate();
+            new JdbcTemplate(h2).update("DELETE FROM employees");
+            dataSources.add(h2);
+        }
+        store = new ShardedEmployeeStore(dataSources, new SnowflakeIdGenerator(7, Clock.systemUTC()),
+                Executors.newFixedThreadPool(SHARDS));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        store.close();
+    }
+
+    // JUnit Test for spreading employees over the shards
+    @DisplayName("JUnit Test for spreading employees over the shards")
+    @Test
+    public void givenEmployees_whenCreate_thenEveryShardHoldsItsShareAndFindByIdRoutes() {
+        // given - precondition ot setup
+        List<EmployeeDto> created = new ArrayList<>();
+
+        // when - action or the behaviour that we are going to test
+        for (int i = 0; i < 300; i++) {
+            created.add(store.create(employee("John", "Doe" + i, "john" + i + "@doe.com")));
+        }
+
+        // then - verify the output
+        assertThat(created).extracting(EmployeeDto::getId).doesNotHaveDuplicates().isSorted();
+        for (JdbcDataSource dataSource : dataSources) {
+            assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM employees", Long.class))
+                    .isBetween(50L, 150L);
+        }
+        assertThat(store.count()).isEqualTo(300);
+        EmployeeDto employee = created.get(42);
+        assertThat(store.findById(employee.getId())).contains(employee);
+        assertThat(new JdbcTemplate(dataSources.get(store.shardOf(employee.getId())))
+                .queryForObject("SELECT email FROM employees WHERE id = ?", String.class, employee.getId()))
+                .isEqualTo("john42@doe.com");
+    }
+
+    // JUnit Test for merged keyset pages over all shards
+    @DisplayName("JUnit Test for merged keyset pages over all shards")
+    @Test
+    public void givenEmployeesOnAllShards_whenFindAfter_thenPagesInIdOrderWithoutGapsOrDuplicates() {
+        // given - precondition ot setup
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            ids.add(store.create(employee("Page", "Doe", "page" + i + "@doe.com")).getId());
+        }
+
+        // when - action or the behaviour that we are going to test
+        List<Long> paged = new ArrayList<>();
+        List<EmployeeDto> page = store.findAfter(0, 10);
+        while (!page.isEmpty()) {
+            assertThat(page.size()).isLessThanOrEqualTo(10);
+            page.forEach(employeeDto -> paged.add(employeeDto.getId()));
+            page = store.findAfter(page.get(page.size() - 1).getId(), 10);
+        }
+
+        // then - verify the output
+        assertThat(paged).isEqualTo(ids);
+        assertThat(store.findByName("Page", "Doe", ids.get(89), 10))
+                .extracting(EmployeeDto::getId).isEqualTo(ids.subList(90, 95));
+    }
+
+    // JUnit Test for updates, deletes and email lookups on the owning shard
+    @DisplayName("JUnit Test for updates, deletes and email lookups on the owning shard")
+    @Test
+    public void givenEmployee_whenUpdateAndDelete_thenOnlyCurrentVersionIsUpdated() {
+        // given - precondition ot setup
+        EmployeeDto employee = store.create(employee("Jane", "Doe", "jane@doe.com"));
+        EmployeeDto renamed = employee.copyOf();
+        renamed.setLastName("Smith");
+
+        // when - action or the behaviour that we are going to test
+        boolean updated = store.update(renamed);
+        boolean staleUpdated = store.update(renamed);
+
+        // then - verify the output
+        assertThat(updated).isTrue();
+        assertThat(staleUpdated).isFalse();
+        assertThat(store.findByEmail("jane@doe.com")).hasValueSatisfying(found -> {
+            assertThat(found.getLastName()).isEqualTo("Smith");
+            assertThat(found.getVersion()).isEqualTo(1L);
+        });
+        assertThat(store.deleteById(employee.getId())).isTrue();
+        assertThat(store.findById(employee.getId())).isEmpty();
+        assertThat(store.findByEmail("jane@doe.com")).isEmpty();
+    }
+
+    // JUnit Test for tenants on the shards
+    @DisplayName("JUnit Test for tenants on the shards")
+    @Test
+    public void givenEmployeesOfTwoTenants_whenReadAsOneTenant_thenOnlyItsEmployees() {
+        // given - precondition ot setup
+        EmployeeDto acme = TenantContext.call("acme", () -> store.create(employee("Acme", "Doe", "same@doe.com")));
+        for (int i = 0; i < 20; i++) {
+            store.create(employee("Default", "Doe", "default" + i + "@doe.com"));
+        }
+
+        // when - action or the behaviour that we are going to test
+        List<EmployeeDto> acmePage = TenantContext.call("acme", () -> store.findAfter(0, 100));
+
+        // then - verify the output
+        assertThat(acmePage).containsExactly(acme);
+        assertThat(store.findAfter(0, 100)).hasSize(20).doesNotContain(acme);
+        assertThat(store.findById(acme.getId())).isEmpty();
+        assertThat(store.count()).isEqualTo(20);
+        assertThat(store.deleteById(acme.getId())).isFalse();
+        assertThat(TenantContext.call("acme", () -> store.findById(acme.getId()))).contains(acme);
+        assertThat(TenantContext.call("acme", () -> store.findByEmail("same@doe.com"))).contains(acme);
+    }
+
+    // JUnit Test for snowflake ids
+    @DisplayName("JUnit Test for snowflake ids")
+    @Test
+    public void givenFixedClock_whenNextId_thenSequenceThenNextMillisecond() {
+        // given - precondition ot setup
+        Instant now = Instant.parse("2024-06-01T12:00:00Z");
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID,
+                Clock.fixed(now, ZoneOffset.UTC));
+        Set<Long> ids = new HashSet<>();
+
+        // when - action or the behaviour that we are going to test
+        for (int i = 0; i < 1 << SnowflakeIdGenerator.SEQUENCE_BITS; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // then - verify the output
+        assertThat(ids).hasSize(128);
+        long id = ids.iterator().next();
+        assertThat(SnowflakeIdGenerator.timestampOf(id)).isEqualTo(now);
+        assertThat(SnowflakeIdGenerator.workerOf(id)).isEqualTo(31);
+        assertThat(ids).allMatch(each -> each > 0);
+    }
+
+    // JUnit Test for snowflake ids read by JavaScript clients
+    @DisplayName("JUnit Test for snowflake ids read by JavaScript clients")
+    @Test
+    public void givenLastMillisecondOfTheEpoch_whenNextId_thenIdIsASafeInteger() {
+        // given - precondition ot setup
+        Instant last = SnowflakeIdGenerator.EPOCH.plusMillis((1L << SnowflakeIdGenerator.TIMESTAMP_BITS) - 1);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID,
+                Clock.fixed(last, ZoneOffset.UTC));
+
+        // when - action or the behaviour that we are going to test
+        long id = 0;
+        for (int i = 0; i < 1 << SnowflakeIdGenerator.SEQUENCE_BITS; i++) {
+            id = generator.nextId();
+        }
+
+        // then - verify the output: Number.MAX_SAFE_INTEGER
+        assertThat(id).isEqualTo(SnowflakeIdGenerator.MAX_ID).isEqualTo(9_007_199_254_740_991L);
+        assertThat((long) (double) id).isEqualTo(id);
+        assertThat(SnowflakeIdGenerator.timestampOf(id)).isEqualTo(last);
+    }
+
+    private static EmployeeDto employee(String firstName, String lastName, String email) {
+        return EmployeeDto.builder().firstName(firstName).lastName(lastName).email(email).build();
+    }
+}
@@ -0,0 +1,271 @@
+package cool.cfapps.springboottesting.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cool.cfapps.springboottesting.dto.EmployeeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Static import to improve code length
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tenanttest;DB_CLOSE_DELAY=-1",
+        "employees.tenants.queue-timeout=100ms"
+})
+@AutoConfigureMockMvc
+class TenantIsolationTest {
+
+    private static final String TENANT = "X-Tenant-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TenantScheduler tenantScheduler;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("DELETE FROM employees");
+    }
+
+    // JUnit Test for employees not being visible to other tenants
+    @DisplayName("JUnit Test for employees not being visible to other tenants")
+    @Test
+    public void givenEmployeeOfTenant_whenAccessAsOtherTenant_thenNotFound() throws Exception {
+        // given - precondition ot setup
+        EmployeeDto acme = create("acme", "John", "john@acme.com");
+        create("globex", "Jane", "jane@globex.com");
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(get("/api/v1/employees/{id}", acme.getId()).header(TENANT, "acme"))
+
+                // then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, TENANT));
+        mockMvc.perform(get("/api/v1/employees/{id}", acme.getId()).header(TENANT, "globex"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/employees/{id}", acme.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/employees").param("email", "john@acme.com").header(TENANT, "globex"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/employees").header(TENANT, "globex"))
+                .andExpect(jsonPath("$[*].email").value(not(hasItem("john@acme.com"))))
+                .andExpect(jsonPath("$[*].email").value(hasItem("jane@globex.com")));
+        EmployeeDto renamed = acme.copyOf();
+        renamed.setLastName("Smith");
+        mockMvc.perform(put("/api/v1/employees").header(TENANT, "globex")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(renamed)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/v1/employees/{id}", acme.getId()).header(TENANT, "globex"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/employees").param("email", "john@acme.com").header(TENANT, "acme"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("Doe"));
+    }
+
+    // JUnit Test for emails being unique per tenant
+    @DisplayName("JUnit Test for emails being unique per tenant")
+    @Test
+    public void givenEmailOfOtherTenant_whenCreate_thenCreatedAndOnlyDuplicateOfSameTenantConflicts() throws Exception {
+        // given - precondition ot setup
+        create("acme", "John", "john@doe.com");
+
+        // when - action or the behaviour that we are going to test
+        EmployeeDto globex = create("globex", "Jane", "john@doe.com");
+
+        // then - verify the output
+        mockMvc.perform(get("/api/v1/employees").param("email", "john@doe.com").header(TENANT, "globex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(globex.getId()));
+        mockMvc.perform(get("/api/v1/employees").param("email", "john@doe.com").header(TENANT, "acme"))
+                .andExpect(jsonPath("$.firstName").value("John"));
+        mockMvc.perform(post("/api/v1/employees").header(TENANT, "globex")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Joe\",\"lastName\":\"Doe\",\"email\":\"john@doe.com\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    // JUnit Test for the streaming endpoint running async for the tenant of the request
+    @DisplayName("JUnit Test for the streaming endpoint running async for the tenant of the request")
+    @Test
+    public void givenEmployeesOfTwoTenants_whenStream_thenOnlyEmployeesOfTheTenant() throws Exception {
+        // given - precondition ot setup
+        create("acme", "John", "john@acme.com");
+        create("globex", "Jane", "jane@globex.com");
+
+        // when - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/v1/employees/stream").header(TENANT, "globex"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].email").value("jane@globex.com"));
+    }
+
+    // JUnit Test for rejecting an invalid tenant id
+    @DisplayName("JUnit Test for rejecting an invalid tenant id")
+    @Test
+    public void givenInvalidTenantId_whenGetEmployees_thenBadRequest() throws Exception {
+        // given - precondition ot setup
+        String tenantId = "../acme";
+
+        // when - action or the behaviour that we are going to test
+        mockMvc.perform(get("/api/v1/employees").header(TENANT, tenantId))
+
+                // then - verify the output
+                .andExpect(status().isBadRequest());
+    }
+
+    // JUnit Test for answering 429 when no request slot frees up within the queue timeout
+    @DisplayName("JUnit Test for answering 429 when no request slot frees up within the queue timeout")
+    @Test
+    public void givenAllSlotsTaken_whenGetEmployees_thenTooManyRequests() throws Exception {
+        // given - precondition ot setup
+        List<TenantScheduler.Permit> permits = new ArrayList<>();
+        TenantScheduler.Permit permit;
+        while ((permit = tenantScheduler.acquire("busy-" + permits.size(), Duration.ZERO)) != null) {
+            permits.add(permit);
+        }
+
+        // when - action or the behaviour that we are going to test
+        try {
+            mockMvc.perform(get("/api/v1/employees").header(TENANT, "acme"))
+
+                    // then - verify the output
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            permits.forEach(TenantScheduler.Permit::close);
+        }
+        mockMvc.perform(get("/api/v1/employees").header(TENANT, "acme"))
+                .andExpect(status().isOk());
+    }
+
+    // JUnit Test for streams being admitted apart from the other requests
+    @DisplayName("JUnit Test for streams being admitted apart from the other requests")
+    @Test
+    public void givenAllRequestSlotsTaken_whenStream_thenAdmitted() throws Exception {
+        // given - precondition ot setup
+        create("acme", "John", "john@acme.com");
+        List<TenantScheduler.Permit> permits = new ArrayList<>();
+        TenantScheduler.Permit permit;
+        while ((permit = tenantScheduler.acquire("busy-" + permits.size(), Duration.ZERO)) != null) {
+            permits.add(permit);
+        }
+
+        // when - action or the behaviour that we are going to test
+        MvcResult result;
+        try {
+            result = mockMvc.perform(get("/api/v1/employees/stream").header(TENANT, "acme"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+        } finally {
+            permits.forEach(TenantScheduler.Permit::close);
+        }
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email").value("john@acme.com"));
+    }
+
+    // JUnit Test for the per tenant cap of the scheduler
+    @DisplayName("JUnit Test for the per tenant cap of the scheduler")
+    @Test
+    public void givenTenantAtItsCap_whenAcquire_thenOnlyOtherTenantsAreAdmitted() throws Exception {
+        // given - precondition ot setup
+        TenantScheduler scheduler = new TenantScheduler(3, 1, tenantId -> 1);
+        TenantScheduler.Permit acme = scheduler.acquire("acme", Duration.ZERO);
+
+        // when - action or the behaviour that we are going to test
+        TenantScheduler.Permit secondAcme = scheduler.acquire("acme", Duration.ZERO);
+        TenantScheduler.Permit globex = scheduler.acquire("globex", Duration.ZERO);
+
+        // then - verify the output
+        assertThat(acme).isNotNull();
+        assertThat(secondAcme).isNull();
+        assertThat(globex).isNotNull();
+        assertThat(scheduler.running()).isEqualTo(2);
+        acme.close();
+        acme.close();
+        assertThat(scheduler.running()).isEqualTo(1);
+    }
+
+    // JUnit Test for sharing the slots between waiting tenants by weight
+    @DisplayName("JUnit Test for sharing the slots between waiting tenants by weight")
+    @Test
+    public void givenWaitingTenants_whenSlotsFreeUp_thenAdmittedInProportionToTheirWeight() throws Exception {
+        // given - precondition ot setup
+        TenantScheduler scheduler = new TenantScheduler(1, 1, tenantId -> tenantId.equals("gold") ? 2 : 1);
+        TenantScheduler.Permit holder = scheduler.acquire("holder", Duration.ZERO);
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        for (int i = 0; i < 6; i++) {
+            for (String tenantId : List.of("gold", "bronze")) {
+                executor.submit(() -> {
+                    try (TenantScheduler.Permit ignored = scheduler.acquire(tenantId, Duration.ofSeconds(10))) {
+                        admitted.add(tenantId);
+                    }
+                    return null;
+                });
+            }
+        }
+        while (scheduler.waiting("gold") < 6 || scheduler.waiting("bronze") < 6) {
+            Thread.sleep(10);
+        }
+
+        // when - action or the behaviour that we are going to test
+        holder.close();
+        executor.shutdown();
+
+        // then - verify the output
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(admitted).hasSize(12);
+        // while both tenants wait, gold gets two slots for every slot of bronze
+        assertThat(admitted.subList(0, 6)).filteredOn("gold"::equals).hasSize(4);
+    }
+
+    private EmployeeDto create(String tenantId, String firstName, String email) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/employees").header(TENANT, tenantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"" + firstName + "\",\"lastName\":\"Doe\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, EmployeeDto.class);
+    }
+}